@@ -0,0 +1,13 @@
+package study.querydsl.projection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// setter/field 방식 DTO 에 붙이면 <Dto>Projection (FactoryExpression) 을 생성
+// Projections.bean/fields 와 달리 row 마다 reflection 을 타지 않고 new + setter 직접 호출
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface ProjectionBean {
+}
@@ -0,0 +1,247 @@
+package study.querydsl.projection;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// @ProjectionBean DTO 마다 <Dto>Projection 생성
+// - 생성자 인자 순서 = DTO 필드 선언 순서
+// - 값 주입은 setter 호출 (lombok @Data/@Setter 포함, lombok 의 setter 이름 규칙), setter 가 없고 private 이 아닌 필드는 직접 대입
+// - QBean 과 같이 null 값은 주입하지 않음 (primitive 필드 기본값 유지)
+@SupportedAnnotationTypes("study.querydsl.projection.ProjectionBean")
+public class ProjectionBeanProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "Projection";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@ProjectionBean is only allowed on classes");
+                    continue;
+                }
+                generate((TypeElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement dto) {
+        if (dto.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(dto, "@ProjectionBean class must not be abstract");
+            return;
+        }
+        List<Property> properties = properties(dto);
+        if (properties == null) {
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(dto).getQualifiedName().toString();
+        String dtoName = dto.getQualifiedName().toString();
+        String simpleName = dto.getSimpleName() + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, dto);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source(packageName, simpleName, dtoName, properties));
+            }
+        } catch (IOException e) {
+            error(dto, "failed to generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private List<Property> properties(TypeElement dto) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(dto.getEnclosedElements());
+        // class 의 @Setter 가 @Data 보다 우선 (@Setter(AccessLevel.NONE) 이면 @Data 여도 setter 없음)
+        AnnotationMirror classSetter = lombok(dto, "lombok.Setter");
+        boolean classSetters = classSetter != null ? usable(classSetter) : lombok(dto, "lombok.Data") != null;
+
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(dto.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            if (modifiers.contains(Modifier.FINAL)) {
+                error(field, "@ProjectionBean field must not be final");
+                return null;
+            }
+
+            String name = field.getSimpleName().toString();
+            String setter = setterName(name, field.asType());
+            // 필드의 @Setter 가 class 설정보다 우선
+            AnnotationMirror fieldSetter = lombok(field, "lombok.Setter");
+            boolean lombokSetter = fieldSetter != null ? usable(fieldSetter) : classSetters;
+            boolean hasSetter = lombokSetter || hasSetter(methods, setter, field.asType());
+            if (!hasSetter && modifiers.contains(Modifier.PRIVATE)) {
+                error(field, "no setter for private field '" + name + "'");
+                return null;
+            }
+            properties.add(new Property(name, boxed(field.asType()), hasSetter ? setter : null));
+        }
+        if (properties.isEmpty()) {
+            error(dto, "@ProjectionBean class has no properties");
+            return null;
+        }
+        return properties;
+    }
+
+    private boolean hasSetter(List<ExecutableElement> methods, String setter, TypeMirror type) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(setter)
+                    && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // lombok 과 같은 이름 - primitive boolean 의 isX 필드는 setX
+    private static String setterName(String name, TypeMirror type) {
+        if (type.getKind() == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")
+                && Character.isUpperCase(name.charAt(2))) {
+            return "set" + name.substring(2);
+        }
+        return "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // lombok 은 SOURCE retention 이라 이름으로 비교
+    private static AnnotationMirror lombok(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    // @Setter(AccessLevel.NONE/PRIVATE) 는 생성 코드에서 호출할 수 없음 (PACKAGE/PROTECTED 는 같은 package 라 가능)
+    private static boolean usable(AnnotationMirror setter) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : setter.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                Object value = entry.getValue().getValue();
+                String access = value instanceof VariableElement
+                        ? ((VariableElement) value).getSimpleName().toString()
+                        : String.valueOf(value);
+                return !access.endsWith("NONE") && !access.endsWith("PRIVATE");
+            }
+        }
+        return true;
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private String source(String packageName, String simpleName, String dtoName, List<Property> properties) {
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("import com.querydsl.core.types.Expression;\n")
+                .append("import com.querydsl.core.types.FactoryExpressionBase;\n")
+                .append("import com.querydsl.core.types.Visitor;\n\n")
+                .append("import java.util.Arrays;\n")
+                .append("import java.util.Collections;\n")
+                .append("import java.util.List;\n\n")
+                .append("// generated by ProjectionBeanProcessor - do not edit\n")
+                .append("public class ").append(simpleName)
+                .append(" extends FactoryExpressionBase<").append(dtoName).append("> {\n\n")
+                .append("    private static final long serialVersionUID = 1L;\n\n")
+                .append("    private final List<Expression<?>> args;\n\n");
+
+        src.append("    public ").append(simpleName).append("(");
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            src.append(i == 0 ? "" : ", ")
+                    .append("Expression<? extends ").append(property.type).append("> ").append(property.name);
+        }
+        src.append(") {\n")
+                .append("        super(").append(dtoName).append(".class);\n")
+                .append("        this.args = Collections.unmodifiableList(Arrays.<Expression<?>>asList(");
+        for (int i = 0; i < properties.size(); i++) {
+            src.append(i == 0 ? "" : ", ").append(properties.get(i).name);
+        }
+        src.append("));\n")
+                .append("    }\n\n");
+
+        src.append("    @Override\n")
+                .append("    public List<Expression<?>> getArgs() {\n")
+                .append("        return args;\n")
+                .append("    }\n\n");
+
+        src.append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public ").append(dtoName).append(" newInstance(Object... a) {\n")
+                .append("        ").append(dtoName).append(" instance = new ").append(dtoName).append("();\n");
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            String value = "(" + property.type + ") a[" + i + "]";
+            src.append("        if (a[").append(i).append("] != null) {\n");
+            if (property.setter != null) {
+                src.append("            instance.").append(property.setter).append("(").append(value).append(");\n");
+            } else {
+                src.append("            instance.").append(property.name).append(" = ").append(value).append(";\n");
+            }
+            src.append("        }\n");
+        }
+        src.append("        return instance;\n")
+                .append("    }\n\n");
+
+        src.append("    @Override\n")
+                .append("    public <R, C> R accept(Visitor<R, C> v, C context) {\n")
+                .append("        return v.visit(this, context);\n")
+                .append("    }\n")
+                .append("}\n");
+        return src.toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static final class Property {
+        private final String name;
+        private final String type;
+        private final String setter;
+
+        private Property(String name, String type, String setter) {
+            this.name = name;
+            this.type = type;
+            this.setter = setter;
+        }
+    }
+}
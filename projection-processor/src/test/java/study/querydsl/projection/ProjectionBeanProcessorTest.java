@@ -0,0 +1,199 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.FactoryExpression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 실제 javac 로 processor 를 돌려 생성 코드/에러를 확인
+// lombok 은 실행하지 않으므로 lombok 이 필요한 경우는 -proc:only 로 생성 코드만 확인 (annotation 은 stub)
+class ProjectionBeanProcessorTest {
+
+    private static final String LOMBOK_ACCESS_LEVEL = "package lombok;\n"
+            + "public enum AccessLevel { PUBLIC, MODULE, PROTECTED, PACKAGE, PRIVATE, NONE }\n";
+    private static final String LOMBOK_SETTER = "package lombok;\n"
+            + "public @interface Setter { AccessLevel value() default AccessLevel.PUBLIC; }\n";
+    private static final String LOMBOK_DATA = "package lombok;\n"
+            + "public @interface Data { }\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void generatedProjectionCompilesAndCreatesInstance() throws Exception {
+        Result result = compile(false, source("dto.SetterDto",
+                "package dto;\n"
+                        + "@study.querydsl.projection.ProjectionBean\n"
+                        + "public class SetterDto {\n"
+                        + "    private String username;\n"
+                        + "    int age;\n"
+                        + "    public void setUsername(String username) { this.username = username; }\n"
+                        + "    public String getUsername() { return username; }\n"
+                        + "    public int getAge() { return age; }\n"
+                        + "}\n"));
+
+        assertThat(result.errors()).isEmpty();
+        assertThat(result.generated("dto.SetterDtoProjection"))
+                .contains("instance.setUsername(")
+                .contains("instance.age = ");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{result.classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> projectionClass = loader.loadClass("dto.SetterDtoProjection");
+            FactoryExpression<?> projection = (FactoryExpression<?>) projectionClass.getConstructors()[0]
+                    .newInstance(null, null);
+
+            Object dto = projection.newInstance("member1", 10);
+            assertThat(dto).extracting("username", "age").containsExactly("member1", 10);
+
+            // null 은 주입하지 않음 (primitive 기본값 유지)
+            Object empty = projection.newInstance(null, null);
+            assertThat(empty).extracting("username", "age").containsExactly(null, 0);
+        }
+    }
+
+    @Test
+    public void booleanIsFieldUsesLombokSetterName() throws Exception {
+        Result result = compile(true, lombok(), source("dto.FlagDto",
+                "package dto;\n"
+                        + "@study.querydsl.projection.ProjectionBean\n"
+                        + "@lombok.Data\n"
+                        + "public class FlagDto {\n"
+                        + "    private boolean isActive;\n"
+                        + "    private Boolean isDeleted;\n"
+                        + "    private boolean island;\n"
+                        + "}\n"));
+
+        assertThat(result.errors()).isEmpty();
+        assertThat(result.generated("dto.FlagDtoProjection"))
+                .contains("instance.setActive(")
+                .contains("instance.setIsDeleted(")
+                .contains("instance.setIsland(");
+    }
+
+    @Test
+    public void setterAccessNoneOrPrivateIsNotUsable() throws Exception {
+        Result fieldNone = compile(true, lombok(), source("dto.FieldNoneDto",
+                "package dto;\n"
+                        + "@study.querydsl.projection.ProjectionBean\n"
+                        + "@lombok.Data\n"
+                        + "public class FieldNoneDto {\n"
+                        + "    private String username;\n"
+                        + "    @lombok.Setter(lombok.AccessLevel.NONE)\n"
+                        + "    private int age;\n"
+                        + "}\n"));
+        assertThat(fieldNone.errors()).containsExactly("no setter for private field 'age'");
+
+        Result classPrivate = compile(true, lombok(), source("dto.ClassPrivateDto",
+                "package dto;\n"
+                        + "import lombok.AccessLevel;\n"
+                        + "@study.querydsl.projection.ProjectionBean\n"
+                        + "@lombok.Data\n"
+                        + "@lombok.Setter(AccessLevel.PRIVATE)\n"
+                        + "public class ClassPrivateDto {\n"
+                        + "    private String username;\n"
+                        + "}\n"));
+        assertThat(classPrivate.errors()).containsExactly("no setter for private field 'username'");
+
+        // 필드의 @Setter 가 class 설정보다 우선, PACKAGE 는 같은 package 의 생성 코드에서 호출 가능
+        Result fieldOverride = compile(true, lombok(), source("dto.FieldOverrideDto",
+                "package dto;\n"
+                        + "@study.querydsl.projection.ProjectionBean\n"
+                        + "@lombok.Setter(lombok.AccessLevel.NONE)\n"
+                        + "public class FieldOverrideDto {\n"
+                        + "    @lombok.Setter(lombok.AccessLevel.PACKAGE)\n"
+                        + "    private String username;\n"
+                        + "}\n"));
+        assertThat(fieldOverride.errors()).isEmpty();
+        assertThat(fieldOverride.generated("dto.FieldOverrideDtoProjection")).contains("instance.setUsername(");
+    }
+
+    private List<Path> lombok() throws IOException {
+        return Arrays.asList(
+                source("lombok.AccessLevel", LOMBOK_ACCESS_LEVEL),
+                source("lombok.Setter", LOMBOK_SETTER),
+                source("lombok.Data", LOMBOK_DATA));
+    }
+
+    private Path source(String className, String content) throws IOException {
+        Path file = dir.resolve("src").resolve(className.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Result compile(boolean procOnly, List<Path> sources, Path source) throws IOException {
+        List<Path> all = new ArrayList<>(sources);
+        all.add(source);
+        return compile(procOnly, all);
+    }
+
+    private Result compile(boolean procOnly, Path source) throws IOException {
+        return compile(procOnly, Collections.singletonList(source));
+    }
+
+    private Result compile(boolean procOnly, List<Path> sources) throws IOException {
+        Path generated = Files.createTempDirectory(dir, "generated");
+        Path classes = Files.createTempDirectory(dir, "classes");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = new ArrayList<>(Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-s", generated.toString(),
+                    "-d", classes.toString()));
+            if (procOnly) {
+                options.add("-proc:only");
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(sources.stream().map(Path::toFile).collect(Collectors.toList())));
+            task.setProcessors(Collections.singletonList(new ProjectionBeanProcessor()));
+            task.call();
+        }
+        return new Result(generated, classes, diagnostics.getDiagnostics());
+    }
+
+    private static final class Result {
+        private final Path generated;
+        private final Path classes;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+        private Result(Path generated, Path classes, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            this.generated = generated;
+            this.classes = classes;
+            this.diagnostics = diagnostics;
+        }
+
+        private List<String> errors() {
+            return diagnostics.stream()
+                    .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    .map(diagnostic -> diagnostic.getMessage(null))
+                    .collect(Collectors.toList());
+        }
+
+        private String generated(String className) throws IOException {
+            Path file = generated.resolve(className.replace('.', File.separatorChar) + ".java");
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+    }
+}
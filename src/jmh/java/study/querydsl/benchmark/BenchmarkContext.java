@@ -0,0 +1,83 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// benchmark 용 in-memory H2 + spring context (application.yml 보다 우선하도록 command line 인자로 덮어씀)
+final class BenchmarkContext {
+
+    static final int TEAM_COUNT = 10;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(int rowCount, String... extraArgs) {
+        return start(WebApplicationType.NONE, rowCount, extraArgs);
+    }
+
+    // 내장 tomcat 포함 (server.port=0, 실제 포트는 local.server.port)
+    static ConfigurableApplicationContext startWeb(int rowCount, String... extraArgs) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        for (String extraArg : extraArgs) {
+            args.add(extraArg);
+        }
+        return start(WebApplicationType.SERVLET, rowCount, args.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int rowCount, String... extraArgs) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.profiles.active=bench");
+        args.add("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        args.add("--spring.jpa.hibernate.ddl-auto=create");
+        args.add("--spring.jpa.properties.hibernate.format_sql=false");
+        args.add("--spring.jpa.properties.hibernate.use_sql_comments=false");
+        args.add("--logging.level.org.hibernate.SQL=warn");
+        args.add("--spring.main.banner-mode=off");
+        for (String extraArg : extraArgs) {
+            args.add(extraArg);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(new String[0]));
+
+        seed(context, rowCount);
+        return context;
+    }
+
+    // member 는 teamN (N = i % TEAM_COUNT), age = i % 100
+    static void seed(ConfigurableApplicationContext context, int rowCount) {
+        EntityManager em = context.getBean(EntityManager.class);
+        MemberJpaRepository memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        tx.execute(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int t = 0; t < TEAM_COUNT; t++) {
+                Team team = new Team("team" + t);
+                em.persist(team);
+                teams.add(team);
+            }
+
+            List<Member> members = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                members.add(new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT)));
+            }
+            memberJpaRepository.saveAll(members, 1000);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.ialcon.Customer;
+import study.querydsl.entity.ialcon.Product;
+import study.querydsl.repository.ialcon.CustomerRepository;
+import study.querydsl.repository.ialcon.ProductRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+// 100k row saveAll - id 할당 크기(1 = insert 마다 sequence 조회) x jdbc batch 크기(1 = batch 없음)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class IalconSaveAllBenchmark {
+
+    @Param({"100000"})
+    public int rowCount;
+
+    @Param({"1", "50"})
+    public int incrementSize;
+
+    @Param({"1", "100"})
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate tx;
+    private ProductRepository productRepository;
+    private CustomerRepository customerRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(0,
+                "--spring.jpa.properties.ialcon.id.increment_size=" + incrementSize,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        productRepository = context.getBean(ProductRepository.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        tx.execute(status -> {
+            em.createQuery("delete from Product").executeUpdate();
+            em.createQuery("delete from Customer").executeUpdate();
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int saveAllProducts() {
+        List<Product> products = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            products.add(new Product("product" + i, "p" + i));
+        }
+        return tx.execute(status -> productRepository.saveAll(products).size());
+    }
+
+    @Benchmark
+    public int saveAllCustomers() {
+        List<Customer> customers = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            customers.add(new Customer("customer" + i, "c" + i));
+        }
+        return tx.execute(status -> customerRepository.saveAll(customers).size());
+    }
+}
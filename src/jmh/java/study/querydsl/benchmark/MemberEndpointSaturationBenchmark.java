@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+// tomcat thread 를 적게 두고 /v3/members 를 포화시킨 상태에서
+// 같은 서버의 /actuator/health (DB 미사용) 처리량을 blocking vs async endpoint 로 비교
+@State(Scope.Benchmark)
+public class MemberEndpointSaturationBenchmark {
+
+    private static final int TOMCAT_THREADS = 16;
+
+    @Param({"/v3/members", "/v3/members/async"})
+    public String endpoint;
+
+    @Param({"100000"})
+    public int rowCount;
+
+    private ConfigurableApplicationContext context;
+    private String searchUrl;
+    private String healthUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWeb(rowCount,
+                "--server.tomcat.max-threads=" + TOMCAT_THREADS,
+                "--member.jdbc-executor.pool-size=8",
+                "--member.jdbc-executor.queue-capacity=1000",
+                "--member.count-cache.enabled=false");
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        // 마지막 쪽 페이지 + 필터로 content/count 모두 스캔하게 함
+        searchUrl = base + endpoint + "?ageGoe=10&page=400&size=20";
+        healthUrl = base + "/actuator/health";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("saturation")
+    @GroupThreads(48)
+    public int search() throws IOException {
+        return get(searchUrl);
+    }
+
+    @Benchmark
+    @Group("saturation")
+    @GroupThreads(4)
+    public int health() throws IOException {
+        return get(healthUrl);
+    }
+
+    // 503 (jdbc executor 대기열 초과) 도 응답으로 셈
+    private static int get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            // 끝까지 읽고 닫아야 keep-alive 커넥션이 재사용됨
+            byte[] buffer = new byte[8192];
+            while (body.read(buffer) != -1) {
+            }
+            body.close();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+// MemberJpaRepository.saveAll - batchSize 1 (건별 insert) vs jdbc batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class MemberImportBenchmark {
+
+    @Param({"100000"})
+    public int rowCount;
+
+    @Param({"1", "50", "500"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate tx;
+    private MemberJpaRepository memberJpaRepository;
+    private List<Member> members;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(0);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareRows() {
+        tx.execute(status -> em.createQuery("delete from Member").executeUpdate());
+
+        // Member 생성자가 team.members 에 추가하므로 team 을 조회한 트랜잭션 안에서 생성
+        members = new ArrayList<>(rowCount);
+        tx.execute(status -> {
+            Team team = em.createQuery("select t from Team t", Team.class)
+                    .setMaxResults(1)
+                    .getSingleResult();
+            for (int i = 0; i < rowCount; i++) {
+                members.add(new Member("member" + i, i % 100, team));
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long saveAll() {
+        return tx.execute(status -> memberJpaRepository.saveAll(members, batchSize));
+    }
+}
@@ -0,0 +1,101 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberDtoProjection;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.dto.UserDtoProjection;
+
+import static study.querydsl.entity.QMember.member;
+
+// DB 없이 row(Object[]) -> DTO 변환 비용만 비교 (score = rows/ms)
+// ProjectionBenchmark 는 쿼리 실행 비용이 섞여서 projection 차이가 잘 안 보임
+@State(Scope.Benchmark)
+public class ProjectionMappingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private Object[][] rows;
+
+    private QBean<MemberDto> bean;
+    private QBean<MemberDto> fields;
+    private QBean<UserDto> aliasedFields;
+    private ConstructorExpression<MemberDto> constructor;
+    private QMemberDto queryProjection;
+    private MemberDtoProjection projectionBean;
+    private UserDtoProjection userProjectionBean;
+
+    @Setup
+    public void setUp() {
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{"member" + i, i % 100};
+        }
+
+        bean = Projections.bean(MemberDto.class, member.username, member.age);
+        fields = Projections.fields(MemberDto.class, member.username, member.age);
+        aliasedFields = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+        constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+        queryProjection = new QMemberDto(member.username, member.age);
+        projectionBean = new MemberDtoProjection(member.username, member.age);
+        userProjectionBean = new UserDtoProjection(member.username, member.age);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bean(Blackhole bh) {
+        map(bean, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fields(Blackhole bh) {
+        map(fields, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void aliasedFields(Blackhole bh) {
+        map(aliasedFields, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void constructor(Blackhole bh) {
+        map(constructor, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void queryProjection(Blackhole bh) {
+        map(queryProjection, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void projectionBean(Blackhole bh) {
+        map(projectionBean, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void userProjectionBean(Blackhole bh) {
+        map(userProjectionBean, bh);
+    }
+
+    private void map(FactoryExpression<?> projection, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+// 정규화된 검색 조건 -> 변경 불가 결과 list
+// 메모리는 전체 row 수(weight)로 제한, 제거 정책은 caffeine 기본(W-TinyLFU)
+// 쓰기 트랜잭션 안에서는 캐시를 쓰지 않음 (WritingTransaction)
+public class CaffeineMemberSearchCache implements MemberSearchCache, MeterBinder {
+
+    private final Cache<MemberSearchCondition, List<MemberTeamDto>> cache;
+
+    // invalidate 이전에 시작한 조회 결과가 invalidate 이후에 저장되지 않도록 세대 비교
+    private volatile long generation;
+
+    public CaffeineMemberSearchCache(long maximumWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((MemberSearchCondition key, List<MemberTeamDto> value) -> value.size() + 1)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition, Function<MemberSearchCondition, List<MemberTeamDto>> searchQuery) {
+        MemberSearchCondition key = condition.normalized();
+        if (WritingTransaction.isActive()) {
+            return Collections.unmodifiableList(new ArrayList<>(searchQuery.apply(key)));
+        }
+
+        List<MemberTeamDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation;
+        List<MemberTeamDto> result = Collections.unmodifiableList(new ArrayList<>(searchQuery.apply(key)));
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                cache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.invalidateAll();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "memberSearch");
+    }
+}
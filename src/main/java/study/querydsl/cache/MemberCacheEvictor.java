@@ -0,0 +1,26 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangedEvent;
+
+// member, team 테이블이 바뀌면 member 검색 결과/count 캐시를 비움
+@Component
+@RequiredArgsConstructor
+public class MemberCacheEvictor {
+
+    private final MemberCountCache memberCountCache;
+    private final MemberSearchCache memberSearchCache;
+
+    // teamName 조건이 있으므로 Team 변경도 결과에 영향을 줌
+    @EventListener
+    public void evict(EntityChangedEvent event) {
+        if (event.isAbout(Member.class, Team.class)) {
+            memberCountCache.invalidateAll();
+            memberSearchCache.invalidateAll();
+        }
+    }
+}
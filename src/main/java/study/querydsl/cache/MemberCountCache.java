@@ -0,0 +1,19 @@
+package study.querydsl.cache;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.function.LongSupplier;
+
+// searchPageComplex count query 결과 캐시 (구현 교체 가능)
+public interface MemberCountCache {
+
+    long count(MemberSearchCondition condition, LongSupplier countQuery);
+
+    void invalidateAll();
+
+    long hitCount();
+
+    long missCount();
+
+    int size();
+}
@@ -0,0 +1,16 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.count-cache")
+public class MemberCountCacheProperties {
+
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(30);
+    private int maxEntries = 1000;
+}
@@ -0,0 +1,15 @@
+package study.querydsl.cache;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// MemberRepositoryCustom.search 결과 캐시 (opt-in, member.search-cache.enabled)
+public interface MemberSearchCache {
+
+    List<MemberTeamDto> search(MemberSearchCondition condition, Function<MemberSearchCondition, List<MemberTeamDto>> searchQuery);
+
+    void invalidateAll();
+}
@@ -0,0 +1,14 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.search-cache")
+public class MemberSearchCacheProperties {
+
+    private boolean enabled = false;
+    // 캐시에 담을 수 있는 전체 MemberTeamDto 수
+    private long maximumWeight = 100_000;
+}
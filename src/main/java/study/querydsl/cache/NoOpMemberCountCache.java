@@ -0,0 +1,37 @@
+package study.querydsl.cache;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 캐시 비활성화 시 사용 - 항상 count query 실행
+public class NoOpMemberCountCache implements MemberCountCache {
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Override
+    public long count(MemberSearchCondition condition, LongSupplier countQuery) {
+        misses.incrementAndGet();
+        return countQuery.getAsLong();
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+
+    @Override
+    public long hitCount() {
+        return 0;
+    }
+
+    @Override
+    public long missCount() {
+        return misses.get();
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+}
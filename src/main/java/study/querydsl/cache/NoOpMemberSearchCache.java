@@ -0,0 +1,19 @@
+package study.querydsl.cache;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class NoOpMemberSearchCache implements MemberSearchCache {
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition, Function<MemberSearchCondition, List<MemberTeamDto>> searchQuery) {
+        return searchQuery.apply(condition);
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+}
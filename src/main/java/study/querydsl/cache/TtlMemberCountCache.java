@@ -0,0 +1,102 @@
+package study.querydsl.cache;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 정규화된 검색 조건 -> count, TTL 이 지나거나 maxEntries 를 넘으면(LRU) 제거
+// 쓰기 트랜잭션 안에서는 캐시를 쓰지 않음 (WritingTransaction)
+public class TtlMemberCountCache implements MemberCountCache {
+
+    private final long ttlNanos;
+    private final Map<MemberSearchCondition, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // invalidate 이전에 시작한 count 결과가 invalidate 이후에 저장되지 않도록 세대 비교
+    private long generation;
+
+    public TtlMemberCountCache(Duration ttl, int maxEntries) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<MemberSearchCondition, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemberSearchCondition, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public long count(MemberSearchCondition condition, LongSupplier countQuery) {
+        if (WritingTransaction.isActive()) {
+            return countQuery.getAsLong();
+        }
+        MemberSearchCondition key = condition.normalized();
+        long loadGeneration;
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.count;
+                }
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = System.nanoTime();
+        long count = countQuery.getAsLong();
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry(count, loadedAt));
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    @Override
+    public long hitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long missCount() {
+        return misses.get();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long loadedAt;
+
+        private Entry(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
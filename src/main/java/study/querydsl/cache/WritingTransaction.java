@@ -0,0 +1,16 @@
+package study.querydsl.cache;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 쓰기 트랜잭션 안의 조회는 flush 된 (commit 전) 변경까지 보므로 공유 캐시에서 읽지도 넣지도 않음
+// (무효화는 트랜잭션 종료 시점이라 그 전까지 다른 요청에 commit 되지 않은 결과가 보이고, 같은 트랜잭션은 이후 변경을 못 봄)
+final class WritingTransaction {
+
+    private WritingTransaction() {
+    }
+
+    static boolean isActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,67 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import study.querydsl.repository.support.AsyncQueryProperties;
+import study.querydsl.repository.support.JdbcExecutorProperties;
+import study.querydsl.repository.support.PartitionScanProperties;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({AsyncQueryProperties.class, JdbcExecutorProperties.class, PartitionScanProperties.class})
+public class AsyncQueryConfig {
+
+    public static final String MEMBER_QUERY_EXECUTOR = "memberQueryExecutor";
+    public static final String MEMBER_JDBC_EXECUTOR = "memberJdbcExecutor";
+
+    @Bean(name = MEMBER_QUERY_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService memberQueryExecutor(AsyncQueryProperties properties) {
+        if (properties.isVirtualThreads()) {
+            ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+            if (virtualThreads != null) {
+                log.info("member async query executor: virtual threads");
+                return virtualThreads;
+            }
+        }
+
+        // 큐가 차면 호출 스레드에서 실행 (순차 실행으로 후퇴, 요청은 버리지 않음)
+        return new ThreadPoolExecutor(
+                properties.getPoolSize(), properties.getPoolSize(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("member-query-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // 비동기 controller 용, servlet thread 대신 JDBC 대기를 떠안는 고정 크기 pool
+    // 큐가 차면 RejectedExecutionException (caller-runs 로 servlet thread 를 다시 잡지 않음)
+    @Bean(name = MEMBER_JDBC_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService memberJdbcExecutor(JdbcExecutorProperties properties) {
+        return new ThreadPoolExecutor(
+                properties.getPoolSize(), properties.getPoolSize(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("member-jdbc-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // java 8 source 로 빌드하므로 JDK 21+ 의 Executors.newVirtualThreadPerTaskExecutor 는 reflection 으로 찾는다
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
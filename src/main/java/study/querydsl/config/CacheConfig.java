@@ -0,0 +1,55 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.cache.CaffeineMemberSearchCache;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberCountCacheProperties;
+import study.querydsl.cache.MemberSearchCacheProperties;
+import study.querydsl.cache.NoOpMemberCountCache;
+import study.querydsl.cache.NoOpMemberSearchCache;
+import study.querydsl.cache.TtlMemberCountCache;
+
+@Configuration
+@EnableConfigurationProperties({MemberCountCacheProperties.class, MemberSearchCacheProperties.class})
+public class CacheConfig {
+
+    @Bean
+    public MemberCountCache memberCountCache(MemberCountCacheProperties properties) {
+        if (!properties.isEnabled()) {
+            return new NoOpMemberCountCache();
+        }
+        return new TtlMemberCountCache(properties.getTtl(), properties.getMaxEntries());
+    }
+
+    @Bean
+    public MeterBinder memberCountCacheMetrics(MemberCountCache memberCountCache) {
+        return registry -> {
+            FunctionCounter.builder("member.count.cache.gets", memberCountCache, MemberCountCache::hitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("member.count.cache.gets", memberCountCache, MemberCountCache::missCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("member.count.cache.size", memberCountCache, MemberCountCache::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "member.search-cache", name = "enabled", havingValue = "true")
+    public CaffeineMemberSearchCache memberSearchCache(MemberSearchCacheProperties properties) {
+        return new CaffeineMemberSearchCache(properties.getMaximumWeight());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "member.search-cache", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public NoOpMemberSearchCache noOpMemberSearchCache() {
+        return new NoOpMemberSearchCache();
+    }
+}
@@ -0,0 +1,68 @@
+package study.querydsl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.querydsl.datasource.ReplicaDataSource;
+import study.querydsl.datasource.ReplicaLagMonitor;
+import study.querydsl.datasource.ReplicaProperties;
+import study.querydsl.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// datasource.replica.enabled 일 때만 - spring.datasource 는 primary, datasource.replica.nodes 는 읽기 전용
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+
+    // open-in-view 면 요청 내내 EntityManager 가 처음 얻은 커넥션을 잡고 있어서
+    // 첫 트랜잭션이 readOnly 면 이후 쓰기도 replica 로, 첫 트랜잭션이 쓰기면 이후 읽기도 primary 로 감
+    public DataSourceConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("datasource.replica.enabled requires spring.jpa.open-in-view=false");
+        }
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().build();
+
+        List<ReplicaDataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Node node : replicaProperties.getNodes()) {
+            DataSource target = DataSourceBuilder.create()
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(node.getUrl())
+                    .username(node.getUsername())
+                    .password(node.getPassword())
+                    .build();
+            replicas.add(new ReplicaDataSource("replica" + replicas.size(), target));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas,
+                replicaProperties.getLoadBalancing().selector(), replicaProperties.getMaxLag());
+    }
+
+    // 실제 커넥션은 첫 statement 때 얻음 (그 시점엔 트랜잭션 readOnly 여부가 정해져 있음)
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaProperties replicaProperties) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource.getReplicas(),
+                replicaProperties.getLagQuery(), replicaProperties.getLagCheckInterval());
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.repository.support.NPlusOneDetector;
+import study.querydsl.repository.support.NPlusOneProperties;
+
+@Configuration
+@EnableConfigurationProperties(NPlusOneProperties.class)
+public class HibernateConfig {
+
+    @Bean
+    public NPlusOneDetector nPlusOneDetector(NPlusOneProperties properties) {
+        return new NPlusOneDetector(properties.isEnabled(), properties.getThreshold(), properties.isFailOnThreshold());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(NPlusOneDetector nPlusOneDetector) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, nPlusOneDetector);
+    }
+}
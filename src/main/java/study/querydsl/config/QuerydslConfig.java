@@ -0,0 +1,36 @@
+package study.querydsl.config;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.event.EntityChangePublisher;
+import study.querydsl.repository.MemberCountQueryBuilder;
+import study.querydsl.repository.support.CountQueryProperties;
+import study.querydsl.repository.support.InstrumentedJPAQueryFactory;
+import study.querydsl.repository.support.QueryMetrics;
+import study.querydsl.repository.support.QueryMetricsProperties;
+
+import javax.persistence.EntityManager;
+
+@Configuration
+@EnableConfigurationProperties({QueryMetricsProperties.class, CountQueryProperties.class})
+public class QuerydslConfig {
+
+    @Bean
+    public QueryMetrics queryMetrics(MeterRegistry meterRegistry, QueryMetricsProperties properties) {
+        return new QueryMetrics(meterRegistry, properties.getSlowQueryThreshold(), properties.getMaxShapes());
+    }
+
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManager em, EntityChangePublisher changePublisher, QueryMetrics queryMetrics) {
+        return new InstrumentedJPAQueryFactory(em, changePublisher, queryMetrics);
+    }
+
+    @Bean
+    public MemberCountQueryBuilder memberCountQueryBuilder(JPAQueryFactory jpaQueryFactory, EntityManager em,
+                                                           CountQueryProperties properties) {
+        return new MemberCountQueryBuilder(jpaQueryFactory, em, properties.isEstimateEnabled(), properties.getEstimateThreshold());
+    }
+}
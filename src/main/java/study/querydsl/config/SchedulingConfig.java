@@ -0,0 +1,12 @@
+package study.querydsl.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// TeamStatsReconciler 주기 실행 (team-stats.reconcile.enabled)
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "team-stats.reconcile.enabled", havingValue = "true")
+public class SchedulingConfig {
+}
@@ -7,10 +7,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
 
 @Profile("local") // local 환경에서만 사용
 @Component
@@ -25,8 +28,12 @@ public class InitMember {
     }
 
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
+        private static final int BATCH_SIZE = 100;
+
         @PersistenceContext private EntityManager em;
+        private final MemberJpaRepository memberJpaRepository;
 
         @Transactional
         public void init() {
@@ -36,10 +43,12 @@ public class InitMember {
             em.persist(teamA);
             em.persist(teamB);
 
+            List<Member> members = new ArrayList<>();
             for (int i = 0; i < 100; i++) {
                 Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
+                members.add(new Member("member" + i, i, selectedTeam));
             }
+            memberJpaRepository.saveAll(members, BATCH_SIZE);
         }
     }
 }
@@ -0,0 +1,74 @@
+package study.querydsl.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.config.AsyncQueryConfig;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberRepositoryCustom;
+import study.querydsl.repository.index.MemberColumnarIndex;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+// MemberController v1 ~ v3 의 비동기 버전
+// 조회는 memberJdbcExecutor 에서 실행되고 servlet thread 는 바로 반환 (응답은 async dispatch)
+@RestController
+public class MemberAsyncController {
+
+    private final MemberRepository memberRepository;
+
+    // member.columnar-index.enabled 일 때만 있음
+    private final ObjectProvider<MemberColumnarIndex> memberColumnarIndex;
+
+    private final ExecutorService jdbcExecutor;
+
+    public MemberAsyncController(MemberRepository memberRepository,
+                                 ObjectProvider<MemberColumnarIndex> memberColumnarIndex,
+                                 @Qualifier(AsyncQueryConfig.MEMBER_JDBC_EXECUTOR) ExecutorService jdbcExecutor) {
+        this.memberRepository = memberRepository;
+        this.memberColumnarIndex = memberColumnarIndex;
+        this.jdbcExecutor = jdbcExecutor;
+    }
+
+    @GetMapping("/v1/members/async")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1(MemberSearchCondition condition) {
+        // 동기 v1 과 같은 경로: index -> 검색 결과 캐시 -> DB
+        return onJdbcExecutor(() -> memberSearch().search(condition));
+    }
+
+    @GetMapping("/v2/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return onJdbcExecutor(() -> memberSearch().searchPageSimple(condition, pageable));
+    }
+
+    @GetMapping("/v3/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        return onJdbcExecutor(() -> memberSearch().searchPageComplex(condition, pageable));
+    }
+
+    // MemberController 와 같은 선택 - 메모리 index 가 적재되어 있으면 index, 아니면 DB
+    private MemberRepositoryCustom memberSearch() {
+        MemberColumnarIndex index = memberColumnarIndex.getIfAvailable();
+        return index != null && index.isReady() ? index : memberRepository;
+    }
+
+    // 대기열이 가득 차면 더 쌓지 않고 503 (backpressure)
+    private <T> CompletableFuture<T> onJdbcExecutor(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, jdbcExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "member query queue is full", e);
+        }
+    }
+}
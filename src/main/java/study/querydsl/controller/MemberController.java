@@ -1,39 +1,135 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberRepositoryCustom;
+import study.querydsl.repository.index.MemberColumnarIndex;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final MemberJpaRepository memberJpaRepository;
 
     private final MemberRepository memberRepository;
 
+    private final ObjectMapper objectMapper;
+
+    // member.columnar-index.enabled 일 때만 있음
+    private final ObjectProvider<MemberColumnarIndex> memberColumnarIndex;
+
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        // index -> 검색 결과 캐시(member.search-cache.enabled) -> DB
+        return memberSearch().search(condition);
+    }
+
+    // v1 과 같은 조건, 결과를 모으지 않고 cursor 로 읽으면서 바로 응답에 씀 (ndjson, csv)
+    @GetMapping("/v1/members/export")
+    public void exportMemberV1(MemberSearchCondition condition,
+                               @RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        MemberExportFormat exportFormat;
+        try {
+            exportFormat = MemberExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment; filename=\"members." + exportFormat.name().toLowerCase() + "\"");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        exportFormat.writeHeader(writer);
+        memberJpaRepository.export(condition, EXPORT_FETCH_SIZE, dto -> {
+            try {
+                exportFormat.writeRow(writer, dto, objectMapper);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
     }
 
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+        return memberSearch().searchPageSimple(condition, pageable);
     }
 
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+        return memberSearch().searchPageComplex(condition, pageable);
     }
 
+    // cursor(keyset) 기반 - 몇 번째 페이지든 첫 페이지와 비용이 같음
+    @GetMapping("/v4/members")
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        Long lastMemberId;
+        try {
+            lastMemberId = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
 
+        Slice<MemberTeamDto> slice = memberSearch().searchSlice(condition, lastMemberId, size);
+        return MemberCursorPage.of(slice);
+    }
+
+    // 무한 스크롤용 - total 없이 hasNext 만 (요청당 query 1번)
+    @GetMapping("/v5/members")
+    public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        // index 는 member id 순서만 있으므로 sort 가 있으면 DB
+        MemberRepositoryCustom search = pageable.getSort().isSorted() ? memberRepository : memberSearch();
+        try {
+            return search.searchSlice(condition, pageable);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // 메모리 index 가 적재되어 있으면 index, 아니면 DB
+    private MemberRepositoryCustom memberSearch() {
+        MemberColumnarIndex index = readyIndex();
+        return index != null ? index : memberRepository;
+    }
+
+    private MemberColumnarIndex readyIndex() {
+        MemberColumnarIndex index = memberColumnarIndex.getIfAvailable();
+        return index != null && index.isReady() ? index : null;
+    }
 }
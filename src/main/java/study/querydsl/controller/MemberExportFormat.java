@@ -0,0 +1,86 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public enum MemberExportFormat {
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        void writeHeader(Writer writer) {
+        }
+
+        @Override
+        void writeRow(Writer writer, MemberTeamDto dto, ObjectMapper objectMapper) throws IOException {
+            writer.write(toJson(dto, objectMapper));
+            writer.write('\n');
+        }
+    },
+
+    CSV("text/csv") {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("memberId,username,age,teamId,teamName\n");
+        }
+
+        @Override
+        void writeRow(Writer writer, MemberTeamDto dto, ObjectMapper objectMapper) throws IOException {
+            writer.write(csv(dto.getMemberId()));
+            writer.write(',');
+            writer.write(csv(dto.getUsername()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getAge()));
+            writer.write(',');
+            writer.write(csv(dto.getTeamId()));
+            writer.write(',');
+            writer.write(csv(dto.getTeamName()));
+            writer.write('\n');
+        }
+    };
+
+    private final String contentType;
+
+    MemberExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    abstract void writeHeader(Writer writer) throws IOException;
+
+    abstract void writeRow(Writer writer, MemberTeamDto dto, ObjectMapper objectMapper) throws IOException;
+
+    public static MemberExportFormat from(String format) {
+        for (MemberExportFormat value : values()) {
+            if (value.name().equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("unsupported export format: " + format);
+    }
+
+    private static String toJson(MemberTeamDto dto, ObjectMapper objectMapper) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
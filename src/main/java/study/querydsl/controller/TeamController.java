@@ -0,0 +1,27 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamStatsQueryRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsQueryRepository teamStatsQueryRepository;
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStatsV1() {
+        return teamStatsQueryRepository.findTeamStats();
+    }
+
+    // member 집계 대신 유지되는 TeamStats 요약 (team id 별)
+    @GetMapping("/v2/teams/stats")
+    public List<TeamStatsDto> teamStatsV2() {
+        return teamStatsQueryRepository.findTeamStatsFromSummary();
+    }
+}
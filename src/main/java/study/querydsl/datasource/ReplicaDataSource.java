@@ -0,0 +1,75 @@
+package study.querydsl.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// replica 하나 - 빌려간 커넥션 수(least-outstanding 용)와 lag 상태(ReplicaLagMonitor 가 갱신)를 가짐
+public class ReplicaDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean available = true;
+    private volatile long lagMillis;
+
+    public ReplicaDataSource(String name, DataSource target) {
+        super(target);
+        this.name = name;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    // close 될 때 한 번만 outstanding 감소
+    private Connection track(Connection target) {
+        outstanding.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        outstanding.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void updateStatus(boolean available, long lagMillis) {
+        this.available = available;
+        this.lagMillis = lagMillis;
+    }
+}
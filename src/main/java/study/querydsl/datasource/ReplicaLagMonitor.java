@@ -0,0 +1,66 @@
+package study.querydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// 주기적으로 replica 에 lag query 를 날려 상태 갱신
+// lag query 는 lag 을 millisecond 로 돌려주는 한 컬럼 (없으면 접속 가능 여부만 확인)
+// ex) postgres: select coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final List<ReplicaDataSource> replicas;
+    private final String lagQuery;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(List<ReplicaDataSource> replicas, String lagQuery, Duration interval) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.interval = interval;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-"));
+        scheduler.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void check() {
+        for (ReplicaDataSource replica : replicas) {
+            // outstanding 에 잡히지 않도록 원래 datasource 로 접속
+            try (Connection connection = replica.getTargetDataSource().getConnection()) {
+                replica.updateStatus(true, hasText(lagQuery) ? queryLag(connection) : 0L);
+            } catch (SQLException e) {
+                if (replica.isAvailable()) {
+                    log.warn("replica {} is unavailable: {}", replica.getName(), e.getMessage());
+                }
+                replica.updateStatus(false, replica.getLagMillis());
+            }
+        }
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+}
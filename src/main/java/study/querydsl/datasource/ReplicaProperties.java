@@ -0,0 +1,37 @@
+package study.querydsl.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+    // 이보다 뒤처진 replica 는 읽기에서 제외
+    private Duration maxLag = Duration.ofSeconds(5);
+    private String lagQuery;
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+    private List<Node> nodes = new ArrayList<>();
+
+    public enum LoadBalancing {
+        ROUND_ROBIN, LEAST_OUTSTANDING;
+
+        public ReplicaSelector selector() {
+            return this == LEAST_OUTSTANDING ? ReplicaSelector.leastOutstanding() : ReplicaSelector.roundRobin();
+        }
+    }
+
+    @Getter @Setter
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// readOnly 트랜잭션은 replica, 그 외(쓰기, 트랜잭션 밖)는 primary
+// 트랜잭션 시작 후에 readOnly 여부가 정해지므로 LazyConnectionDataSourceProxy 로 감싸서 사용해야 함
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<ReplicaDataSource> replicas;
+    private final ReplicaSelector selector;
+    private final long maxLagMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaDataSource> replicas,
+                                    ReplicaSelector selector, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.selector = selector;
+        this.maxLagMillis = maxLag.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaDataSource replica : replicas) {
+            targets.put(replica.getName(), replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        List<ReplicaDataSource> candidates = new ArrayList<>(replicas.size());
+        for (ReplicaDataSource replica : replicas) {
+            if (replica.isAvailable() && replica.getLagMillis() <= maxLagMillis) {
+                candidates.add(replica);
+            }
+        }
+        // 읽을 수 있는 replica 가 없으면 primary 로
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return selector.select(candidates).getName();
+    }
+
+    public List<ReplicaDataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        close(primary);
+        for (ReplicaDataSource replica : replicas) {
+            close(replica.getTargetDataSource());
+        }
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof DelegatingDataSource) {
+            dataSource = ((DelegatingDataSource) dataSource).getTargetDataSource();
+        }
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+}
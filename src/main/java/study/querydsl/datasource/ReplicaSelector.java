@@ -0,0 +1,32 @@
+package study.querydsl.datasource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 읽기 가능한(lag 허용 범위 안의) replica 중 하나를 고름
+public interface ReplicaSelector {
+
+    ReplicaDataSource select(List<ReplicaDataSource> candidates);
+
+    static ReplicaSelector roundRobin() {
+        AtomicInteger next = new AtomicInteger();
+        return candidates -> candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    // 빌려간 커넥션이 가장 적은 replica (같으면 돌아가면서)
+    static ReplicaSelector leastOutstanding() {
+        AtomicInteger next = new AtomicInteger();
+        return candidates -> {
+            int size = candidates.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            ReplicaDataSource selected = null;
+            for (int i = 0; i < size; i++) {
+                ReplicaDataSource candidate = candidates.get((start + i) % size);
+                if (selected == null || candidate.getOutstanding() < selected.getOutstanding()) {
+                    selected = candidate;
+                }
+            }
+            return selected;
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// keyset paging cursor (member.id 를 외부에 그대로 노출하지 않도록 인코딩)
+public final class MemberCursor {
+
+    private static final String PREFIX = "m:";
+
+    private MemberCursor() {
+    }
+
+    public static String encode(Long memberId) {
+        if (memberId == null) {
+            return null;
+        }
+        byte[] raw = (PREFIX + memberId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+        if (!raw.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor);
+        }
+        try {
+            return Long.valueOf(raw.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Getter
+public class MemberCursorPage {
+
+    private final List<MemberTeamDto> content;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public MemberCursorPage(List<MemberTeamDto> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public static MemberCursorPage of(Slice<MemberTeamDto> slice) {
+        List<MemberTeamDto> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? MemberCursor.encode(content.get(content.size() - 1).getMemberId())
+                : null;
+        return new MemberCursorPage(content, slice.hasNext(), nextCursor);
+    }
+}
@@ -4,10 +4,12 @@ import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import study.querydsl.projection.ProjectionBean;
 
 @Data
 @Setter
 @NoArgsConstructor
+@ProjectionBean
 public class MemberDto {
 
     private String username;
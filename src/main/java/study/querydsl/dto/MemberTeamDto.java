@@ -1,16 +1,21 @@
 package study.querydsl.dto;
 
 import com.querydsl.core.annotations.QueryProjection;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
-@Data
+// 검색 캐시(MemberSearchCache)가 같은 인스턴스를 여러 요청에 돌려주므로 변경 불가
+@Getter
+@ToString
+@EqualsAndHashCode
 public class MemberTeamDto {
 
-    private Long memberId;
-    private String username;
-    private int age;
-    private Long teamId;
-    private String teamName;
+    private final Long memberId;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final String teamName;
 
     @QueryProjection
     public MemberTeamDto(Long memberId, String username, int age, Long teamId, String teamName) {
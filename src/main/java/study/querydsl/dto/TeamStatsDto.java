@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class TeamStatsDto {
+
+    private final String teamName;
+    private final long memberCount;
+    private final long ageSum;
+    private final double ageAvg;
+    private final int ageMin;
+    private final int ageMax;
+
+    public TeamStatsDto(String teamName, long memberCount, long ageSum, double ageAvg, int ageMin, int ageMax) {
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageAvg = ageAvg;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+}
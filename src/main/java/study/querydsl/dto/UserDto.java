@@ -2,9 +2,11 @@ package study.querydsl.dto;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.querydsl.projection.ProjectionBean;
 
 @Data
 @NoArgsConstructor
+@ProjectionBean
 public class UserDto {
     private String name;
     private int age;
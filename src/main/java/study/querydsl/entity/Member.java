@@ -1,16 +1,28 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
+// 검색 조건(username, age 범위, team)별 index - 조회 컬럼(member_id, username, age, team_id)을 모두 포함해서 테이블을 읽지 않음
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username, age, team_id"),
+        @Index(name = "idx_member_age", columnList = "age, member_id, team_id"),
+        @Index(name = "idx_member_team", columnList = "team_id, age, member_id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // findById 는 2차 캐시부터
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id", "username", "age"})
 public class Member {
 
-    @Id @GeneratedValue
+    // pooled optimizer - sequence 호출 1번에 id 50개 할당 (insert 마다 sequence 조회하지 않음)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -1,24 +1,34 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id", "name"})
+@BatchSize(size = 100) // team proxy 를 IN 절로 묶어서 초기화
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 거의 쓰지 않고 모든 검색에서 join
 public class Team {
 
     @Id @GeneratedValue
     private Long id;
     private String name;
 
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "team")
     List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,76 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+// team 별 member 수 / 나이 합계, 최소, 최대 (TeamStatsMaintainer 가 member 변경마다 갱신)
+// team 마다 row 하나 - team 을 insert 할 때 같이 만들고 member 가 0 명이 되어도 지우지 않음
+// (member 반영 시점에 row 를 insert 하면 같은 team 의 첫 member 를 동시에 넣는 트랜잭션끼리 pk 가 충돌)
+// member 가 없으면 ageMin/ageMax 는 0
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private int ageMin;
+    private int ageMax;
+
+    public TeamStats(Long teamId, long memberCount, long ageSum, int ageMin, int ageMax) {
+        this.teamId = teamId;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+
+    public static TeamStats empty(Long teamId) {
+        return new TeamStats(teamId, 0, 0, 0, 0);
+    }
+
+    public boolean isEmpty() {
+        return memberCount == 0;
+    }
+
+    public double getAgeAvg() {
+        return memberCount > 0 ? (double) ageSum / memberCount : 0;
+    }
+
+    public void add(long count, long sum) {
+        this.memberCount += count;
+        this.ageSum += sum;
+    }
+
+    // 추가만 있었으면 범위를 넓히기만 하면 됨
+    public void widen(int min, int max) {
+        this.ageMin = Math.min(ageMin, min);
+        this.ageMax = Math.max(ageMax, max);
+    }
+
+    public void changeRange(int min, int max) {
+        this.ageMin = min;
+        this.ageMax = max;
+    }
+
+    public void replace(long memberCount, long ageSum, int ageMin, int ageMax) {
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+
+    public boolean matches(long memberCount, long ageSum, int ageMin, int ageMax) {
+        return this.memberCount == memberCount && this.ageSum == ageSum && this.ageMin == ageMin && this.ageMax == ageMax;
+    }
+}
@@ -1,17 +1,30 @@
 package study.querydsl.entity.ialcon;
 
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 @Entity
+// upsert(merge/on conflict) 의 key
+@Table(indexes = @Index(name = "ux_customer_iris_code", columnList = "customer_iris_code", unique = true))
+@Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "customerName", "customerIrisName"})
 public class Customer {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_id_generator")
+    @GenericGenerator(name = "customer_id_generator", strategy = IalconIdGenerator.STRATEGY, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "customer_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+    })
     @Column(name = "customer_id")
     private Long id;
 
@@ -20,7 +33,9 @@ public class Customer {
         this.customerIrisCode = customerIrisCode;
     }
 
+    @Column(name = "customer_name")
     private String customerName;
+    @Column(name = "customer_iris_code")
     private String customerIrisCode;
 
 }
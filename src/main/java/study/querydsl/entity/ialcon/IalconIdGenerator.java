@@ -0,0 +1,36 @@
+package study.querydsl.entity.ialcon;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+// IDENTITY 는 persist 즉시 insert 가 나가서 jdbc batch 가 꺼지므로 pooled sequence(또는 table) 로 id 할당
+// 할당 크기, table 사용 여부는 설정으로 변경 (spring.jpa.properties.ialcon.id.*)
+public class IalconIdGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "study.querydsl.entity.ialcon.IalconIdGenerator";
+
+    public static final String INCREMENT_SIZE_SETTING = "ialcon.id.increment_size";
+    public static final String FORCE_TABLE_SETTING = "ialcon.id.force_table_use";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+
+        Object incrementSize = settings.get(INCREMENT_SIZE_SETTING);
+        if (incrementSize != null) {
+            params.setProperty(INCREMENT_PARAM, incrementSize.toString());
+        }
+        Object forceTable = settings.get(FORCE_TABLE_SETTING);
+        if (forceTable != null) {
+            params.setProperty(FORCE_TBL_PARAM, forceTable.toString());
+        }
+
+        super.configure(type, params, serviceRegistry);
+    }
+}
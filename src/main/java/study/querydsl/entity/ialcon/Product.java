@@ -1,18 +1,30 @@
 package study.querydsl.entity.ialcon;
 
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 @Entity
+// upsert(merge/on conflict) 의 key
+@Table(indexes = @Index(name = "ux_product_iris_code", columnList = "product_iris_code", unique = true))
+@Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "productName", "productIrisCode"})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_generator")
+    @GenericGenerator(name = "product_id_generator", strategy = IalconIdGenerator.STRATEGY, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "product_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+    })
     @Column(name = "product_id")
     private Long id;
 
@@ -21,6 +33,8 @@ public class Product {
         this.productIrisCode = productIrisCode;
     }
 
+    @Column(name = "product_name")
     private String productName;
+    @Column(name = "product_iris_code")
     private String productIrisCode;
 }
@@ -0,0 +1,100 @@
+package study.querydsl.event;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// hibernate insert/update/delete 이벤트로 변경된 entity 타입을 모아두었다가 트랜잭션 종료 시 타입별로 한 번씩 발행
+// bulk 연산처럼 hibernate 이벤트가 없는 경로는 entityChanged() 를 직접 호출 (bulk 로 표시됨)
+@Component
+@RequiredArgsConstructor
+public class EntityChangePublisher implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getPersister().getMappedClass(), false);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getPersister().getMappedClass(), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getPersister().getMappedClass(), false);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    public void entityChanged(Class<?> entityClass) {
+        changed(entityClass, true);
+    }
+
+    private void changed(Class<?> entityClass, boolean bulk) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(new EntityChangedEvent(entityClass, bulk));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Class<?>, Boolean> changed = (Map<Class<?>, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            changed = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changed);
+            TransactionSynchronizationManager.registerSynchronization(new PublishOnCompletion(changed));
+        }
+        // 한 번이라도 bulk 로 바뀌었으면 bulk
+        changed.merge(entityClass, bulk, Boolean::logicalOr);
+    }
+
+    // rollback 된 경우에도 발행 - 트랜잭션 안에서 커밋되지 않은 데이터로 채워진 캐시가 남지 않도록
+    private class PublishOnCompletion extends TransactionSynchronizationAdapter {
+
+        private final Map<Class<?>, Boolean> changed;
+
+        PublishOnCompletion(Map<Class<?>, Boolean> changed) {
+            this.changed = changed;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangePublisher.this);
+            changed.forEach((entityClass, bulk) -> eventPublisher.publishEvent(new EntityChangedEvent(entityClass, bulk)));
+        }
+    }
+}
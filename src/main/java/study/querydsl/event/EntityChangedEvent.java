@@ -0,0 +1,32 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 트랜잭션 안에서 변경(insert, update, delete)된 entity 타입 알림
+// bulk: 영속성 컨텍스트를 거치지 않은 변경(bulk update/delete)이 있었음 - 어떤 row 가 바뀌었는지 알 수 없음
+@Getter
+@ToString
+public class EntityChangedEvent {
+
+    private final Class<?> entityClass;
+    private final boolean bulk;
+
+    public EntityChangedEvent(Class<?> entityClass) {
+        this(entityClass, false);
+    }
+
+    public EntityChangedEvent(Class<?> entityClass, boolean bulk) {
+        this.entityClass = entityClass;
+        this.bulk = bulk;
+    }
+
+    public boolean isAbout(Class<?>... entityClasses) {
+        for (Class<?> candidate : entityClasses) {
+            if (candidate.isAssignableFrom(entityClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
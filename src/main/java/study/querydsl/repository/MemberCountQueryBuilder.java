@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import study.querydsl.dto.MemberSearchCondition;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// search 조건에 맞는 count query - 필요한 join 만 (teamName 이 있을 때만 team inner join), count(member.id)
+// 조건이 없으면 전체 row 수라 설정에 따라 DB 통계의 추정치로 대체
+@Slf4j
+public class MemberCountQueryBuilder {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final boolean estimateEnabled;
+    private final long estimateThreshold;
+
+    public MemberCountQueryBuilder(JPAQueryFactory queryFactory, EntityManager em,
+                                   boolean estimateEnabled, long estimateThreshold) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.estimateEnabled = estimateEnabled;
+        this.estimateThreshold = estimateThreshold;
+    }
+
+    public JPAQuery<Long> query(MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.id.count())
+                .from(member);
+
+        // team 없는 member 는 team.name 조건에서 어차피 빠지므로 left join 필요 없음
+        if (hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
+
+        return query.where(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    public long count(MemberSearchCondition condition) {
+        if (estimateEnabled && isUnfiltered(condition)) {
+            Long estimate = estimateRowCount();
+            if (estimate != null && estimate >= estimateThreshold) {
+                return estimate;
+            }
+        }
+        Long count = query(condition).fetchOne();
+        return count != null ? count : 0L;
+    }
+
+    // DB 별 테이블 통계 (지원하지 않거나 실패하면 null -> 정확한 count)
+    // EntityManager 를 거치면 실패 시 트랜잭션이 rollback-only 가 되므로 jdbc 로 직접,
+    // PostgreSQL 은 실패한 문장이 트랜잭션 전체를 중단시키므로 savepoint 로 되돌림
+    Long estimateRowCount() {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            String sql = estimateSql(connection.getMetaData().getDatabaseProductName());
+            if (sql == null) {
+                return null;
+            }
+            Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(sql)) {
+                if (!rs.next()) {
+                    return null;
+                }
+                long estimate = rs.getLong(1);
+                return rs.wasNull() ? null : estimate;
+            } catch (SQLException e) {
+                log.debug("member row count estimate failed", e);
+                if (savepoint != null) {
+                    connection.rollback(savepoint);
+                }
+                return null;
+            } finally {
+                if (savepoint != null) {
+                    releaseQuietly(connection, savepoint);
+                }
+            }
+        });
+    }
+
+    private static void releaseQuietly(Connection connection, Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            // rollback 으로 이미 해제된 경우 등 - 무시
+            log.trace("release savepoint failed", e);
+        }
+    }
+
+    private static String estimateSql(String database) {
+        if ("H2".equals(database)) {
+            return "select row_count_estimate from information_schema.tables where upper(table_name) = 'MEMBER'";
+        }
+        if ("PostgreSQL".equals(database)) {
+            return "select cast(reltuples as bigint) from pg_class where relname = 'member'";
+        }
+        return null;
+    }
+
+    private static boolean isUnfiltered(MemberSearchCondition condition) {
+        return !hasText(condition.getUsername()) && !hasText(condition.getTeamName())
+                && condition.getAgeGoe() == null && condition.getAgeLoe() == null;
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
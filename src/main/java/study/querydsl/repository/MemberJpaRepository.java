@@ -1,11 +1,25 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.beans.support.PagedListHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
@@ -13,30 +27,98 @@ import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.NPlusOneDetector;
+import study.querydsl.repository.support.PartitionScanProperties;
+import study.querydsl.stats.TeamStatsMaintainer;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+@Slf4j
 @Repository
 public class MemberJpaRepository {
 
+    // bulk 연산 chunk 크기 (member.id 범위 폭)
+    private static final int BULK_CHUNK_SIZE = 10_000;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates searchTemplates;
+    private final TransactionTemplate partitionTx;
+    private final TransactionTemplate bulkTx;
+    private final TeamStatsMaintainer teamStatsMaintainer;
+    private final NPlusOneDetector nPlusOneDetector;
+    private final int maxPartitionThreads;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory, MemberSearchQueryTemplates searchTemplates,
+                               PlatformTransactionManager transactionManager, TeamStatsMaintainer teamStatsMaintainer,
+                               NPlusOneDetector nPlusOneDetector, PartitionScanProperties partitionScanProperties) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = queryFactory;
+        this.searchTemplates = searchTemplates;
+        this.partitionTx = new TransactionTemplate(transactionManager);
+        this.partitionTx.setReadOnly(true);
+        this.partitionTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // 트랜잭션 밖에서 호출하면 chunk 마다 commit (lock 을 오래 잡지 않음, 전체가 원자적이지는 않음)
+        // 호출한 쪽 트랜잭션이 있으면 참여 - 그 트랜잭션에서 flush 한 row 를 별도 트랜잭션은 볼 수 없고 lock 대기에 걸리므로
+        this.bulkTx = new TransactionTemplate(transactionManager);
+        this.bulkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        this.teamStatsMaintainer = teamStatsMaintainer;
+        this.nPlusOneDetector = nPlusOneDetector;
+        this.maxPartitionThreads = partitionScanProperties.getMaxThreads();
     }
 
     public void save(Member member) {
         em.persist(member);
     }
 
+    // 대량 insert - jdbc batch 로 묶어서 보내고 batchSize 마다 flush/clear 해서 메모리 사용량 제한
+    // (끝나면 영속성 컨텍스트가 비워지므로 호출 쪽 entity 는 준영속 상태가 됨)
+    @Transactional
+    public long saveAll(Iterable<Member> members, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            long count = 0;
+            for (Member each : members) {
+                em.persist(each);
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+            return count;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
@@ -66,6 +148,7 @@ public class MemberJpaRepository {
     }
 
     // 복합
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
@@ -94,39 +177,272 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
-    // 추천
+    // 추천 (where 파라미터 방식 -> 조건 조합별 JPQL 템플릿으로 캐시)
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
+        return searchTemplates.search(condition);
+    }
+
+    // 대량 export - 결과 전체를 메모리에 올리지 않고 cursor 로 한 건씩 넘김
+    @Transactional(readOnly = true)
+    public long export(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDto> consumer) {
+        long count = 0;
+        try (Stream<MemberTeamDto> rows = searchTemplates.stream(condition, fetchSize)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                // 영속성 컨텍스트가 계속 커지지 않도록 주기적으로 비움
+                if (++count % fetchSize == 0) {
+                    em.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    // 배치용 병렬 scan - member.id 범위를 partitions 개의 겹치지 않는 구간으로 나눠
+    // 구간마다 별도 스레드, 별도 read-only 트랜잭션(= 각자의 EntityManager)에서 id 순으로 읽음
+    // chunk 는 여러 스레드에서 동시에 호출됨, 결과는 구간(id) 순서대로 반환
+    // 동시에 실행되는 구간은 member.partition-scan.max-threads 까지 (구간마다 커넥션 하나), 나머지는 대기
+    public <R> List<R> scanPartitioned(int partitions, int fetchSize, Function<Stream<Member>, R> chunk) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+
+        Tuple bounds = partitionTx.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                .fetchOne());
+        Long minId = bounds != null ? bounds.get(member.id.min()) : null;
+        Long maxId = bounds != null ? bounds.get(member.id.max()) : null;
+        if (minId == null || maxId == null) {
+            return Collections.emptyList();
+        }
+
+        long span = maxId - minId + 1;
+        int count = (int) Math.min(partitions, span);
+        // 호출마다 전용 스레드 - 요청 처리용 pool 을 오래 점유하지 않음
+        // 스레드 수를 제한해서 connection pool 을 다 쓰지 않게 함 (남은 구간은 대기열에서 순서대로)
+        int threads = Math.min(count, maxPartitionThreads);
+        ExecutorService partitionExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("member-partition-"));
+        try {
+            List<CompletableFuture<R>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long fromId = minId + partitionOffset(span, count, i);
+                long toId = minId + partitionOffset(span, count, i + 1);
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> partitionTx.execute(status -> scanRange(fromId, toId, fetchSize, chunk)), partitionExecutor));
+            }
+
+            List<R> results = new ArrayList<>(count);
+            try {
+                for (CompletableFuture<R> future : futures) {
+                    results.add(future.join());
+                }
+            } catch (CompletionException e) {
+                // 실행 중인 구간은 interrupt, 대기 중인 구간은 취소
+                partitionExecutor.shutdownNow();
+                futures.forEach(future -> future.cancel(false));
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+            }
+            return results;
+        } finally {
+            partitionExecutor.shutdown();
+        }
+    }
+
+    // row 단위 callback (여러 스레드에서 동시에 호출됨), 처리한 row 수 반환
+    public long forEachPartitioned(int partitions, int fetchSize, Consumer<Member> action) {
+        List<Long> counts = scanPartitioned(partitions, fetchSize, rows -> {
+            long count = 0;
+            Iterator<Member> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+            return count;
+        });
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    // 균등 분할 - 앞쪽 (span % count) 개 구간이 1 씩 더 큼
+    private static long partitionOffset(long span, int count, int index) {
+        return (span / count) * index + Math.min(index, span % count);
+    }
+
+    // [fromId, toId) - 다음 row 로 넘어갈 때 이전 member 를 detach 해서 영속성 컨텍스트가 커지지 않게 함
+    private <R> R scanRange(long fromId, long toId, int fetchSize, Function<Stream<Member>, R> chunk) {
+        Query query = queryFactory
+                .selectFrom(member)
+                .where(member.id.goe(fromId), member.id.lt(toId))
+                .orderBy(member.id.asc())
+                .createQuery()
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true);
+
+        Member[] previous = new Member[1];
+        @SuppressWarnings("unchecked")
+        Stream<Member> rows = query.getResultStream();
+        try (Stream<Member> detaching = rows.peek(current -> {
+            if (previous[0] != null) {
+                em.detach(previous[0]);
+            }
+            previous[0] = current;
+        })) {
+            return chunk.apply(detaching);
+        }
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    // 조건에 맞는 member 의 age 를 delta 만큼 - member.id 범위 chunk 마다 update 한 번
+    public long bulkUpdateAge(MemberSearchCondition condition, int delta) {
+        return bulkUpdateAge(condition, delta, BULK_CHUNK_SIZE);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    public long bulkUpdateAge(MemberSearchCondition condition, int delta, int chunkSize) {
+        return bulkMutate(condition, chunkSize, where -> {
+            List<Tuple> teams = affectedTeams(where);
+            long rows = queryFactory
+                    .update(member)
+                    .set(member.age, member.age.add(delta))
+                    .where(where)
+                    .execute();
+            for (Tuple row : teams) {
+                teamStatsMaintainer.agesShifted(em, row.get(member.team.id), row.get(member.count()), delta);
+            }
+            return rows;
+        });
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    public long bulkDelete(MemberSearchCondition condition) {
+        return bulkDelete(condition, BULK_CHUNK_SIZE);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    public long bulkDelete(MemberSearchCondition condition, int chunkSize) {
+        return bulkMutate(condition, chunkSize, where -> {
+            List<Tuple> teams = affectedTeams(where);
+            long rows = queryFactory
+                    .delete(member)
+                    .where(where)
+                    .execute();
+            for (Tuple row : teams) {
+                Long ageSum = row.get(member.age.sum().longValue());
+                teamStatsMaintainer.removedAll(em, row.get(member.team.id), row.get(member.count()),
+                        ageSum != null ? ageSum : 0L);
+            }
+            return rows;
+        });
+    }
+
+    // bulk 연산 대상의 team 별 row 수, 나이 합 (TeamStats 반영용 - 같은 chunk 트랜잭션 안에서 연산 직전에 조회)
+    // chunk 마다 같은 select 이므로 N+1 로 세지 않음
+    private List<Tuple> affectedTeams(Predicate where) {
+        return nPlusOneDetector.ignoring(() -> queryFactory
+                .select(member.team.id, member.count(), member.age.sum().longValue())
+                .from(member)
+                .where(where, member.team.isNotNull())
+                .groupBy(member.team.id)
+                .fetch());
+    }
+
+    // bulk 연산은 영속성 컨텍스트를 거치지 않으므로
+    // - 시작 전에 flush (아직 반영 안 된 변경도 대상이 되도록)
+    // - 끝나면 조건에 맞는 managed member 만 detach (em.clear() 처럼 1차 캐시 전체를 버리지 않음)
+    // chunk 는 각자 commit 되므로 중간에 실패하면 앞 chunk 만 반영된 상태로 남음 (호출한 쪽 트랜잭션이 있으면 전체가 그 트랜잭션에 묶임)
+    // 2차 캐시는 hibernate 가 bulk 연산 때 Member region 전체를 무효화, 검색 캐시/index 는 EntityChangedEvent(bulk) 로
+    // TeamStats 는 chunk 마다 대상 team 별 변화량을 TeamStatsMaintainer 에 넘김 (chunk 트랜잭션 commit 직전 반영)
+    private long bulkMutate(MemberSearchCondition condition, int chunkSize, ToLongFunction<Predicate> statement) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+
+        List<Member> affected = Collections.emptyList();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("member bulk statement joined the caller's transaction: chunks keep their locks until it commits");
+            em.flush();
+            affected = managedMembers(condition);
+        }
+
+        Predicate filter = bulkFilter(condition);
+        Tuple bounds = bulkTx.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(filter)
+                .fetchOne());
+        Long minId = bounds != null ? bounds.get(member.id.min()) : null;
+        Long maxId = bounds != null ? bounds.get(member.id.max()) : null;
+
+        long total = 0;
+        if (minId != null && maxId != null) {
+            for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+                Predicate chunk = new BooleanBuilder(filter)
+                        .and(member.id.goe(fromId))
+                        .and(member.id.lt(fromId + chunkSize));
+                Long rows = bulkTx.execute(status -> statement.applyAsLong(chunk));
+                total += rows != null ? rows : 0;
+            }
+        }
+
+        affected.forEach(em::detach);
+        return total;
+    }
+
+    // update/delete 는 join 할 수 없으므로 team.name 은 subquery
+    private Predicate bulkFilter(MemberSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUsername())) {
+            builder.and(member.username.eq(condition.getUsername()));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(member.team.id.in(JPAExpressions
+                    .select(team.id)
+                    .from(team)
+                    .where(team.name.eq(condition.getTeamName()))));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+        return builder;
+    }
+
+    // 현재 영속성 컨텍스트의 member 중 조건에 맞는 것 (bulk 연산 전 상태 기준)
+    private List<Member> managedMembers(MemberSearchCondition condition) {
+        PersistenceContext persistenceContext = em.unwrap(SessionImplementor.class).getPersistenceContext();
+
+        List<Member> result = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            if (entity instanceof Member && matches((Member) entity, condition)) {
+                result.add((Member) entity);
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(Member target, MemberSearchCondition condition) {
+        if (hasText(condition.getUsername()) && !condition.getUsername().equals(target.getUsername())) {
+            return false;
+        }
+        if (condition.getAgeGoe() != null && target.getAge() < condition.getAgeGoe()) {
+            return false;
+        }
+        if (condition.getAgeLoe() != null && target.getAge() > condition.getAgeLoe()) {
+            return false;
+        }
+        if (hasText(condition.getTeamName())) {
+            Team targetTeam = target.getTeam();
+            if (targetTeam == null) {
+                return false;
+            }
+            // 초기화되지 않은 team 은 이름을 모르므로 대상으로 봄 (detach 해도 다시 읽으면 됨)
+            return !Hibernate.isInitialized(targetTeam) || condition.getTeamName().equals(targetTeam.getName());
+        }
+        return true;
     }
 }
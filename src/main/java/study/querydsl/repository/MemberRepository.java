@@ -1,12 +1,17 @@
 package study.querydsl.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import study.querydsl.entity.Member;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 // 3 custom interface 상속 -> 특화된 기능은 그냥 별도 repository로 뽑아서 사용해도 됨
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+
+    // query cache - 결과 id 목록을 캐시하고 entity 는 2차 캐시에서 (member 테이블이 바뀌면 무효화)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     List<Member> findByUsername(String username);
 }
@@ -2,10 +2,13 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 // 1 interface 생성
 public interface MemberRepositoryCustom {
@@ -15,4 +18,16 @@ public interface MemberRepositoryCustom {
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+    // content, count query 를 동시에 실행 (각자 read-only 트랜잭션)
+    CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable);
+
+    // count query 없는 paging (다음 페이지 여부만)
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    // 전체를 메모리에 올리지 않고 cursor 로 순회 (트랜잭션 안에서 호출, 사용 후 close)
+    Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize);
+
+    // keyset paging (lastMemberId 이후 size 건)
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long lastMemberId, int size);
 }
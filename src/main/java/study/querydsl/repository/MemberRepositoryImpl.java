@@ -1,20 +1,37 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.config.AsyncQueryConfig;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
 
-import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
@@ -24,29 +41,34 @@ import static study.querydsl.entity.QTeam.team;
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryTemplates searchTemplates;
+    private final MemberCountCache countCache;
+    private final MemberSearchCache searchCache;
+    private final MemberCountQueryBuilder countQueryBuilder;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService queryExecutor;
 
-    public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+    public MemberRepositoryImpl(JPAQueryFactory queryFactory, MemberSearchQueryTemplates searchTemplates,
+                                MemberCountCache countCache, MemberSearchCache searchCache,
+                                MemberCountQueryBuilder countQueryBuilder,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier(AsyncQueryConfig.MEMBER_QUERY_EXECUTOR) ExecutorService queryExecutor) {
+        this.queryFactory = queryFactory;
+        this.searchTemplates = searchTemplates;
+        this.countCache = countCache;
+        this.searchCache = searchCache;
+        this.countQueryBuilder = countQueryBuilder;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queryExecutor = queryExecutor;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        // 조건 조합별로 미리 만들어 둔 JPQL 사용, 결과 캐시는 member.search-cache.enabled 일 때만
+        return searchCache.search(condition, searchTemplates::search);
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -65,7 +87,25 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
 
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId != null ? member.id.gt(lastMemberId) : null;
+    }
+
     @Override
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        // cursor 가 커넥션을 잡고 있으므로 호출한 쪽 트랜잭션이 stream 보다 오래 살아 있어야 함
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new InvalidDataAccessApiUsageException("streamSearch must be called inside a transaction");
+        }
+        // DTO projection 이라 영속성 컨텍스트에 entity 가 쌓이지 않음 (read-only hint, forward-only scroll)
+        return searchTemplates.stream(condition, fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
         // count, data query 합산 처리 (fetchResults 사용)
         QueryResults<MemberTeamDto> results = queryFactory
@@ -96,10 +136,57 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
 
         // count, data query 분리 처리 (fetch 사용) - count querty 최적화
-        List<MemberTeamDto> content = queryFactory
+        List<MemberTeamDto> content = fetchPageContent(condition, pageable);
+
+//        long total = queryFactory
+//                .select(member)
+//                .from(member)
+//                .where(
+//                        usernameEq(condition.getUsername()),
+//                        teamNameEq(condition.getTeamName()),
+//                        ageGoe(condition.getAgeGoe()),
+//                        ageLoe(condition.getAgeLoe())
+//                )
+//                .fetchCount();
+
+//        return new PageImpl<>(content, pageable, total);
+
+        // count query 최적화 (필요하지 않은 경우는 호출하지 않음)
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(condition));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable) {
+
+        // content, count 를 각자 read-only 트랜잭션(별도 커넥션)에서 동시에 실행
+        // 호출한 쪽 트랜잭션에 묶이지 않으므로 commit 되지 않은 변경은 보이지 않는다
+        CompletableFuture<List<MemberTeamDto>> contentFuture = CompletableFuture.supplyAsync(
+                () -> readOnlyTx.execute(status -> fetchPageContent(condition, pageable)), queryExecutor);
+        CompletableFuture<Long> countFuture = CompletableFuture.supplyAsync(
+                () -> readOnlyTx.execute(status -> fetchCount(condition)), queryExecutor);
+
+        return contentFuture.thenCompose(content -> {
+            if (isLastPage(content, pageable)) {
+                // content 만으로 total 을 알 수 있으면 count 취소 (아직 시작 전이면 실행되지 않음)
+                countFuture.cancel(false);
+                return CompletableFuture.completedFuture(
+                        new PageImpl<>(content, pageable, pageable.getOffset() + content.size()));
+            }
+            return countFuture.thenApply(total -> new PageImpl<>(content, pageable, total));
+        });
+    }
+
+    private List<MemberTeamDto> fetchPageContent(MemberSearchCondition condition, Pageable pageable) {
+        return fetchContent(condition, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private List<MemberTeamDto> fetchContent(MemberSearchCondition condition, long offset, long limit,
+                                             OrderSpecifier<?>... orders) {
+        return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -114,35 +201,105 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(orders)
                 // paging
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .offset(offset)
+                .limit(limit)
                 .fetch();
+    }
 
-//        long total = queryFactory
-//                .select(member)
-//                .from(member)
-//                .where(
-//                        usernameEq(condition.getUsername()),
-//                        teamNameEq(condition.getTeamName()),
-//                        ageGoe(condition.getAgeGoe()),
-//                        ageLoe(condition.getAgeLoe())
-//                )
-//                .fetchCount();
+    private long fetchCount(MemberSearchCondition condition) {
+        // 같은 조건의 count 는 캐시 (TTL, member/team 변경 시 무효화)
+        return countCache.count(condition, () -> countQueryBuilder.count(condition));
+    }
 
-//        return new PageImpl<>(content, pageable, total);
+    // PageableExecutionUtils.getPage 와 같은 기준 (첫 페이지가 덜 찼거나, 마지막 페이지가 덜 찬 경우)
+    private static boolean isLastPage(List<?> content, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return true;
+        }
+        if (pageable.getOffset() == 0) {
+            return pageable.getPageSize() > content.size();
+        }
+        return !content.isEmpty() && pageable.getPageSize() > content.size();
+    }
 
-        // count query 최적화 (필요하지 않은 경우는 호출하지 않음)
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+
+        // count 없이 다음 페이지 존재 여부만 (pageSize + 1 건 조회)
+        List<MemberTeamDto> content = fetchContent(condition, pageable.getOffset(), pageable.getPageSize() + 1,
+                sliceOrder(pageable.getSort()));
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    // pageable 의 sort 뒤에 member.id 를 붙여서 같은 값이 있어도 페이지 경계가 매번 같게
+    private static OrderSpecifier<?>[] sliceOrder(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = sortPath(order.getProperty());
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+        }
+        orders.add(member.id.asc());
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    // MemberTeamDto 필드 이름으로만 정렬 허용
+    private static ComparableExpressionBase<?> sortPath(String property) {
+        switch (property) {
+            case "memberId":
+                return member.id;
+            case "username":
+                return member.username;
+            case "age":
+                return member.age;
+            case "teamId":
+                return team.id;
+            case "teamName":
+                return team.name;
+            default:
+                throw new InvalidDataAccessApiUsageException("unsupported sort property: " + property);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long lastMemberId, int size) {
+
+        // offset 대신 마지막 member.id 다음부터 조회 (앞 페이지 row 를 스캔하지 않음)
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
                 .from(member)
+                .leftJoin(member.team, team)
                 .where(
+                        memberIdGt(lastMemberId),
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                );
+                )
+                .orderBy(member.id.asc())
+                // 다음 페이지 존재 여부 확인용으로 1건 더 조회
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
 
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
     }
 }
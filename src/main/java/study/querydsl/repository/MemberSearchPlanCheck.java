@@ -0,0 +1,101 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.StringJoiner;
+
+import static study.querydsl.repository.MemberSearchQueryTemplates.*;
+
+// 기동 시 search 조건 조합(16가지)의 SQL 을 EXPLAIN 해서 index 를 못 타는 조합을 경고 (H2 만)
+// 조건 없는 조합은 전체 조회라 제외
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.search-plan-check", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MemberSearchPlanCheck implements ApplicationRunner {
+
+    private final MemberSearchQueryTemplates searchTemplates;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"H2".equals(connection.getMetaData().getDatabaseProductName())) {
+                log.debug("member search plan check skipped: {}", connection.getMetaData().getDatabaseProductName());
+                return;
+            }
+
+            for (int shape = 1; shape < SHAPE_COUNT; shape++) {
+                String sql = sessionFactory.getQueryPlanCache()
+                        .getHQLQueryPlan(searchTemplates.jpql(shape), false, Collections.emptyMap())
+                        .getSqlStrings()[0];
+                String plan = explain(connection, sql, shape);
+                if (plan.contains("tableScan")) {
+                    log.warn("member search [{}] falls back to a table scan:\n{}", describe(shape), plan);
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("member search plan check failed", e);
+        }
+    }
+
+    // SQL 의 ? 는 username, teamName, ageGoe, ageLoe 중 있는 것만 이 순서로 나옴
+    private static String explain(Connection connection, String sql, int shape) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int index = 1;
+            if ((shape & USERNAME) != 0) {
+                statement.setString(index++, "member");
+            }
+            if ((shape & TEAM_NAME) != 0) {
+                statement.setString(index++, "team");
+            }
+            if ((shape & AGE_GOE) != 0) {
+                statement.setInt(index++, 0);
+            }
+            if ((shape & AGE_LOE) != 0) {
+                statement.setInt(index, 0);
+            }
+
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static String describe(int shape) {
+        StringJoiner joiner = new StringJoiner(", ");
+        if ((shape & USERNAME) != 0) {
+            joiner.add("username");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            joiner.add("teamName");
+        }
+        if ((shape & AGE_GOE) != 0) {
+            joiner.add("ageGoe");
+        }
+        if ((shape & AGE_LOE) != 0) {
+            joiner.add("ageLoe");
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,189 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.QueryMetrics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// search(MemberSearchCondition) 의 query 는 조건 4개의 유무 조합(16가지)으로만 모양이 달라짐
+// -> 모양별로 JPQL 을 한 번만 만들어 두고 요청마다 파라미터만 바인딩
+// (JPQL 문자열이 같으므로 hibernate query plan cache 도 그대로 재사용됨)
+@Component
+public class MemberSearchQueryTemplates {
+
+    static final int USERNAME = 1;
+    static final int TEAM_NAME = 1 << 1;
+    static final int AGE_GOE = 1 << 2;
+    static final int AGE_LOE = 1 << 3;
+    static final int SHAPE_COUNT = 1 << 4;
+
+    private static final Param<String> usernameParam = new Param<>(String.class, "username");
+    private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+    private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+
+    private static final QMemberTeamDto projection = new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName"));
+
+    private final EntityManager em;
+    private final QueryMetrics metrics;
+    private final AtomicReferenceArray<Template> templates = new AtomicReferenceArray<>(SHAPE_COUNT);
+
+    public MemberSearchQueryTemplates(EntityManager em, QueryMetrics metrics) {
+        this.em = em;
+        this.metrics = metrics;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        Template template = template(shapeOf(condition));
+
+        long start = System.nanoTime();
+        List<?> rows = createQuery(template, condition).getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(toDto(row));
+        }
+        metrics.recordExecution(QueryMetrics.EXECUTE, template.shapeId, template.jpql, template.constants,
+                System.nanoTime() - start, result.size());
+        return result;
+    }
+
+    // forward-only cursor (hibernate scroll) - 사용 후 반드시 close
+    public Stream<MemberTeamDto> stream(MemberSearchCondition condition, int fetchSize) {
+        Query query = createQuery(template(shapeOf(condition)), condition)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true);
+
+        @SuppressWarnings("unchecked")
+        Stream<Object> rows = query.getResultStream();
+        return rows.map(this::toDto);
+    }
+
+    private MemberTeamDto toDto(Object row) {
+        return projection.newInstance((Object[]) row);
+    }
+
+    private Query createQuery(Template template, MemberSearchCondition condition) {
+        int shape = template.shape;
+
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if ((shape & USERNAME) != 0) {
+            params.put(usernameParam, condition.getUsername());
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            params.put(teamNameParam, condition.getTeamName());
+        }
+        if ((shape & AGE_GOE) != 0) {
+            params.put(ageGoeParam, condition.getAgeGoe());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            params.put(ageLoeParam, condition.getAgeLoe());
+        }
+
+        Query query = em.createQuery(template.jpql);
+        JPAUtil.setConstants(query, template.constants, params);
+        return query;
+    }
+
+    static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    // shape 별 JPQL (MemberSearchPlanCheck 에서 실행 계획 확인용)
+    String jpql(int shape) {
+        return template(shape).jpql;
+    }
+
+    private Template template(int shape) {
+        Template template = templates.get(shape);
+        if (template == null) {
+            // 동시에 만들어져도 결과가 같으므로 먼저 저장된 것을 사용
+            templates.compareAndSet(shape, null, compile(shape));
+            template = templates.get(shape);
+        }
+        return template;
+    }
+
+    private Template compile(int shape) {
+        JPAQuery<MemberTeamDto> query = new JPAQuery<Void>()
+                .select(projection)
+                .from(member);
+
+        // team.name 조건이 있으면 team 없는 member 는 어차피 걸러지므로 inner join
+        // (outer join 이면 DB 가 team 쪽 index 부터 읽도록 join 순서를 바꿀 수 없음)
+        if ((shape & TEAM_NAME) != 0) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+
+        query.where(
+                (shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+                (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+                (shape & AGE_GOE) != 0 ? member.age.goe(ageGoeParam) : null,
+                (shape & AGE_LOE) != 0 ? member.age.loe(ageLoeParam) : null
+        );
+
+        long start = System.nanoTime();
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+        String jpql = serializer.toString();
+
+        String shapeId = metrics.shapeId(jpql);
+        metrics.recordGeneration(shapeId, System.nanoTime() - start);
+        return new Template(shape, jpql, shapeId, serializer.getConstantToLabel());
+    }
+
+    private static final class Template {
+        private final int shape;
+        private final String jpql;
+        private final String shapeId;
+        private final Map<Object, String> constants;
+
+        private Template(int shape, String jpql, String shapeId, Map<Object, String> constants) {
+            this.shape = shape;
+            this.jpql = jpql;
+            this.shapeId = shapeId;
+            this.constants = Collections.unmodifiableMap(new HashMap<>(constants));
+        }
+    }
+}
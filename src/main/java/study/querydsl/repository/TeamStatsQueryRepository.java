@@ -0,0 +1,92 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.repository.aggregate.AggregateQueryExecutor;
+import study.querydsl.repository.aggregate.AggregateResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+import static study.querydsl.repository.aggregate.AggregateColumn.doubles;
+import static study.querydsl.repository.aggregate.AggregateColumn.ints;
+import static study.querydsl.repository.aggregate.AggregateColumn.longs;
+
+// 팀별 member 수 / 나이 통계 - member 집계(v1) 또는 TeamStats 요약(v2)
+@Repository
+public class TeamStatsQueryRepository {
+
+    static final int MEMBER_COUNT = 0;
+    static final int AGE_SUM = 1;
+    static final int AGE_AVG = 2;
+    static final int AGE_MIN = 3;
+    static final int AGE_MAX = 4;
+
+    private final JPAQueryFactory queryFactory;
+    private final AggregateQueryExecutor aggregateQueryExecutor;
+
+    public TeamStatsQueryRepository(JPAQueryFactory queryFactory, AggregateQueryExecutor aggregateQueryExecutor) {
+        this.queryFactory = queryFactory;
+        this.aggregateQueryExecutor = aggregateQueryExecutor;
+    }
+
+    // team 별 (key 는 team 이름, 이름이 같은 team 도 따로) - v2 와 같은 순서 (이름, id)
+    // 컬럼 순서는 MEMBER_COUNT .. AGE_MAX
+    @Transactional(readOnly = true)
+    public AggregateResult<String> aggregateByTeam() {
+        return aggregateQueryExecutor.fetch(
+                queryFactory.from(member).join(member.team, team)
+                        .groupBy(team.id)
+                        .orderBy(team.name.asc(), team.id.asc()),
+                team.name,
+                longs(member.count()),
+                longs(member.age.sum()),
+                doubles(member.age.avg()),
+                ints(member.age.min()),
+                ints(member.age.max()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> findTeamStats() {
+        AggregateResult<String> result = aggregateByTeam();
+        long[] counts = result.longs(MEMBER_COUNT);
+        long[] sums = result.longs(AGE_SUM);
+        double[] avgs = result.doubles(AGE_AVG);
+        int[] mins = result.ints(AGE_MIN);
+        int[] maxs = result.ints(AGE_MAX);
+
+        List<TeamStatsDto> stats = new ArrayList<>(result.size());
+        for (int row = 0; row < result.size(); row++) {
+            stats.add(new TeamStatsDto(result.key(row), counts[row], sums[row], avgs[row], mins[row], maxs[row]));
+        }
+        return stats;
+    }
+
+    // 유지되는 TeamStats 요약에서 - member 를 읽지 않음 (team 수 만큼만)
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> findTeamStatsFromSummary() {
+        List<Tuple> rows = queryFactory
+                .select(team.name, teamStats)
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                // member 가 없는 team 의 row (0) 는 v1 (member 집계) 과 같이 제외
+                .where(teamStats.memberCount.gt(0L))
+                .orderBy(team.name.asc(), team.id.asc())
+                .fetch();
+
+        List<TeamStatsDto> stats = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            TeamStats summary = row.get(teamStats);
+            stats.add(new TeamStatsDto(row.get(team.name), summary.getMemberCount(), summary.getAgeSum(),
+                    summary.getAgeAvg(), summary.getAgeMin(), summary.getAgeMax()));
+        }
+        return stats;
+    }
+}
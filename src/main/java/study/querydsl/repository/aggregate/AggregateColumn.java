@@ -0,0 +1,40 @@
+package study.querydsl.repository.aggregate;
+
+import com.querydsl.core.types.Expression;
+
+// 집계 컬럼 + 결과를 담을 primitive 배열 종류
+// sum(int 컬럼) 은 long 으로 나오므로 longs, avg 는 doubles
+public final class AggregateColumn {
+
+    enum Kind {
+        LONG, INT, DOUBLE
+    }
+
+    private final Expression<? extends Number> expression;
+    private final Kind kind;
+
+    private AggregateColumn(Expression<? extends Number> expression, Kind kind) {
+        this.expression = expression;
+        this.kind = kind;
+    }
+
+    public static AggregateColumn longs(Expression<? extends Number> expression) {
+        return new AggregateColumn(expression, Kind.LONG);
+    }
+
+    public static AggregateColumn ints(Expression<? extends Number> expression) {
+        return new AggregateColumn(expression, Kind.INT);
+    }
+
+    public static AggregateColumn doubles(Expression<? extends Number> expression) {
+        return new AggregateColumn(expression, Kind.DOUBLE);
+    }
+
+    Expression<? extends Number> getExpression() {
+        return expression;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+}
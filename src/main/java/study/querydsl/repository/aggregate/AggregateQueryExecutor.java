@@ -0,0 +1,200 @@
+package study.querydsl.repository.aggregate;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.hql.spi.ParameterTranslations;
+import org.hibernate.hql.spi.PositionalParameterInformation;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.QueryMetrics;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// group by 집계 query 를 Tuple(boxed Long/Integer/Double) 없이 primitive 배열로 읽음
+// querydsl 로 만든 JPQL 을 hibernate query plan 으로 SQL 로 번역한 뒤 jdbc ResultSet 에서 getLong/getInt/getDouble
+// (query plan 은 hibernate plan cache 를 그대로 사용)
+@Component
+public class AggregateQueryExecutor {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final EntityManager em;
+    private final QueryMetrics metrics;
+
+    public AggregateQueryExecutor(EntityManager em, QueryMetrics metrics) {
+        this.em = em;
+        this.metrics = metrics;
+    }
+
+    // query 에는 from/join/where/orderBy (+ key 보다 세분할 groupBy) 만 - select 와 groupBy 는 key, columns 로 채움 (query 자체는 바꾸지 않음)
+    public <K> AggregateResult<K> fetch(JPAQuery<?> query, Expression<K> key, AggregateColumn... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("at least one aggregate column is required");
+        }
+        // limit/offset 은 hibernate 가 query 실행 시점에 SQL 에 붙이므로 번역된 SQL 에는 없음
+        if (query.getMetadata().getModifiers().isRestricting()) {
+            throw new IllegalArgumentException("limit/offset is not supported");
+        }
+
+        Expression<?>[] select = new Expression<?>[columns.length + 1];
+        select[0] = key;
+        AggregateColumn.Kind[] kinds = new AggregateColumn.Kind[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            select[i + 1] = columns[i].getExpression();
+            kinds[i] = columns[i].getKind();
+        }
+        QueryMetadata metadata = query.clone().select(select).groupBy(key).getMetadata();
+
+        long start = System.nanoTime();
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(metadata, false, null);
+        String jpql = serializer.toString();
+        Map<Object, String> constants = serializer.getConstantToLabel();
+        Map<ParamExpression<?>, Object> params = metadata.getParams();
+        String shapeId = metrics.shapeId(jpql);
+        metrics.recordGeneration(shapeId, System.nanoTime() - start);
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        // jpa query 처럼 auto flush 가 안 되므로 트랜잭션 안이면 먼저 flush
+        if (em.isJoinedToTransaction()) {
+            em.flush();
+        }
+        HQLQueryPlan plan = session.getFactory().getQueryPlanCache()
+                .getHQLQueryPlan(jpql, false, Collections.emptyMap());
+        QueryTranslator translator = plan.getTranslators()[0];
+
+        start = System.nanoTime();
+        AggregateResult<K> result = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(translator.getSQLString())) {
+                bind(statement, translator.getParameterTranslations(), constants, params, session);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return read(rs, key.getType(), kinds);
+                }
+            }
+        });
+        metrics.recordExecution(QueryMetrics.EXECUTE, shapeId, jpql, constants, System.nanoTime() - start, result.size());
+        return result;
+    }
+
+    // querydsl 은 상수와 Param 을 ?1, ?2 .. (ordinal) 로 serialize 함 - Param 은 query.set(param, value) 의 값으로
+    private static void bind(PreparedStatement statement, ParameterTranslations parameters, Map<Object, String> constants,
+                             Map<ParamExpression<?>, Object> params, SessionImplementor session) throws SQLException {
+        for (Map.Entry<Object, String> constant : constants.entrySet()) {
+            Object value = constant.getKey();
+            if (value instanceof ParamExpression) {
+                ParamExpression<?> param = (ParamExpression<?>) value;
+                if (!params.containsKey(param)) {
+                    throw new ParamNotSetException(param);
+                }
+                value = params.get(param);
+            }
+            if (value instanceof Collection) {
+                // in (...) 의 리스트 펼치기는 hibernate query 실행 시점에 일어나므로 여기서는 지원하지 않음
+                throw new IllegalArgumentException("collection parameters are not supported: " + constant.getValue());
+            }
+            PositionalParameterInformation info = parameters.getPositionalParameterInformation(Integer.parseInt(constant.getValue()));
+            for (int location : info.getSourceLocations()) {
+                if (info.getExpectedType() != null) {
+                    info.getExpectedType().nullSafeSet(statement, value, location + 1, session);
+                } else {
+                    statement.setObject(location + 1, value);
+                }
+            }
+        }
+    }
+
+    private static <K> AggregateResult<K> read(ResultSet rs, Class<? extends K> keyType, AggregateColumn.Kind[] kinds)
+            throws SQLException {
+        Object[] columns = new Object[kinds.length];
+        for (int i = 0; i < kinds.length; i++) {
+            columns[i] = newArray(kinds[i], INITIAL_CAPACITY);
+        }
+
+        List<K> keys = new ArrayList<>(INITIAL_CAPACITY);
+        int capacity = INITIAL_CAPACITY;
+        int rows = 0;
+        while (rs.next()) {
+            if (rows == capacity) {
+                capacity *= 2;
+                for (int i = 0; i < kinds.length; i++) {
+                    columns[i] = grow(kinds[i], columns[i], capacity);
+                }
+            }
+            keys.add(readKey(rs, keyType));
+            for (int i = 0; i < kinds.length; i++) {
+                int index = i + 2;
+                switch (kinds[i]) {
+                    case LONG:
+                        ((long[]) columns[i])[rows] = rs.getLong(index);
+                        break;
+                    case INT:
+                        ((int[]) columns[i])[rows] = rs.getInt(index);
+                        break;
+                    default:
+                        double value = rs.getDouble(index);
+                        ((double[]) columns[i])[rows] = rs.wasNull() ? Double.NaN : value;
+                }
+            }
+            rows++;
+        }
+
+        for (int i = 0; i < kinds.length; i++) {
+            columns[i] = grow(kinds[i], columns[i], rows);
+        }
+        return new AggregateResult<>(keys, kinds, columns);
+    }
+
+    private static <K> K readKey(ResultSet rs, Class<? extends K> keyType) throws SQLException {
+        Object key;
+        if (keyType == String.class) {
+            key = rs.getString(1);
+        } else if (keyType == Long.class) {
+            long value = rs.getLong(1);
+            key = rs.wasNull() ? null : value;
+        } else if (keyType == Integer.class) {
+            int value = rs.getInt(1);
+            key = rs.wasNull() ? null : value;
+        } else {
+            key = rs.getObject(1, keyType);
+        }
+        return keyType.cast(key);
+    }
+
+    private static Object newArray(AggregateColumn.Kind kind, int length) {
+        switch (kind) {
+            case LONG:
+                return new long[length];
+            case INT:
+                return new int[length];
+            default:
+                return new double[length];
+        }
+    }
+
+    private static Object grow(AggregateColumn.Kind kind, Object array, int length) {
+        switch (kind) {
+            case LONG:
+                return Arrays.copyOf((long[]) array, length);
+            case INT:
+                return Arrays.copyOf((int[]) array, length);
+            default:
+                return Arrays.copyOf((double[]) array, length);
+        }
+    }
+}
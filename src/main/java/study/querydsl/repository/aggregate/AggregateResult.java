@@ -0,0 +1,70 @@
+package study.querydsl.repository.aggregate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// group key 별 집계 결과 - 컬럼마다 primitive 배열 하나 (row i = keys.get(i) 그룹)
+// SQL null 은 long/int 는 0, double 은 NaN
+public final class AggregateResult<K> {
+
+    private final List<K> keys;
+    private final AggregateColumn.Kind[] kinds;
+    private final Object[] columns;
+    private Map<K, Integer> rowsByKey;
+
+    AggregateResult(List<K> keys, AggregateColumn.Kind[] kinds, Object[] columns) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.kinds = kinds;
+        this.columns = columns;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public List<K> keys() {
+        return keys;
+    }
+
+    public K key(int row) {
+        return keys.get(row);
+    }
+
+    // 없는 key 면 -1
+    public int rowOf(K key) {
+        Map<K, Integer> index = rowsByKey;
+        if (index == null) {
+            index = new HashMap<>(keys.size() * 2);
+            for (int row = 0; row < keys.size(); row++) {
+                index.put(keys.get(row), row);
+            }
+            rowsByKey = index;
+        }
+        Integer row = index.get(key);
+        return row != null ? row : -1;
+    }
+
+    public long[] longs(int column) {
+        return (long[]) column(column, AggregateColumn.Kind.LONG);
+    }
+
+    public int[] ints(int column) {
+        return (int[]) column(column, AggregateColumn.Kind.INT);
+    }
+
+    public double[] doubles(int column) {
+        return (double[]) column(column, AggregateColumn.Kind.DOUBLE);
+    }
+
+    private Object column(int column, AggregateColumn.Kind kind) {
+        if (column < 0 || column >= columns.length) {
+            throw new IndexOutOfBoundsException("column " + column + " of " + columns.length);
+        }
+        if (kinds[column] != kind) {
+            throw new IllegalArgumentException("column " + column + " is " + kinds[column] + ", not " + kind);
+        }
+        return columns[column];
+    }
+}
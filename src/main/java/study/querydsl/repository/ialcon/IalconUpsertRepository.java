@@ -0,0 +1,205 @@
+package study.querydsl.repository.ialcon;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.ialcon.Customer;
+import study.querydsl.entity.ialcon.Product;
+import study.querydsl.event.EntityChangePublisher;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static study.querydsl.entity.ialcon.QCustomer.customer;
+import static study.querydsl.entity.ialcon.QProduct.product;
+
+// iris code 기준 대량 upsert - row 마다 select + insert/update 하는 save() 대신
+// 1. 이미 있는 iris code 를 IN 으로 한 번에 조회 (inserted/updated 집계, 기존 id 유지)
+// 2. 새 row 의 id 는 hibernate id generator(pooled sequence) 로 할당
+// 3. 여러 row 를 하나의 MERGE INTO ... KEY (H2) / INSERT ... ON CONFLICT (PostgreSQL) 로 묶어 jdbc batch 로 전송
+// 영속성 컨텍스트를 거치지 않으므로 이미 로딩된 entity 는 갱신되지 않음
+@Repository
+public class IalconUpsertRepository {
+
+    private static final int ROWS_PER_STATEMENT = 50;
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private static final Table<Product> PRODUCT_TABLE = new Table<>(Product.class, "product",
+            "product_id", "product_iris_code", "product_name",
+            product.id, product.productIrisCode, Product::getProductIrisCode, Product::getProductName);
+
+    private static final Table<Customer> CUSTOMER_TABLE = new Table<>(Customer.class, "customer",
+            "customer_id", "customer_iris_code", "customer_name",
+            customer.id, customer.customerIrisCode, Customer::getCustomerIrisCode, Customer::getCustomerName);
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final EntityChangePublisher changePublisher;
+
+    public IalconUpsertRepository(EntityManager em, JPAQueryFactory queryFactory, EntityChangePublisher changePublisher) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.changePublisher = changePublisher;
+    }
+
+    @Transactional
+    public UpsertResult upsertProducts(Collection<Product> products) {
+        return upsert(PRODUCT_TABLE, products);
+    }
+
+    @Transactional
+    public UpsertResult upsertCustomers(Collection<Customer> customers) {
+        return upsert(CUSTOMER_TABLE, customers);
+    }
+
+    private <T> UpsertResult upsert(Table<T> table, Collection<T> entities) {
+        // 같은 iris code 가 여러 번 오면 마지막 것 (한 statement 안에 같은 key 가 두 번 있으면 안 됨)
+        Map<String, T> byCode = new LinkedHashMap<>();
+        for (T entity : entities) {
+            String code = table.code.apply(entity);
+            if (code == null) {
+                throw new IllegalArgumentException("iris code is required: " + entity);
+            }
+            byCode.put(code, entity);
+        }
+        if (byCode.isEmpty()) {
+            return new UpsertResult(0, 0);
+        }
+
+        em.flush();
+        Map<String, Long> existingIds = existingIds(table, new ArrayList<>(byCode.keySet()));
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        IdentifierGenerator idGenerator = session.getFactory().getMetamodel()
+                .entityPersister(table.entityClass)
+                .getIdentifierGenerator();
+
+        List<Object[]> rows = new ArrayList<>(byCode.size());
+        for (Map.Entry<String, T> entry : byCode.entrySet()) {
+            Long id = existingIds.get(entry.getKey());
+            if (id == null) {
+                id = (Long) idGenerator.generate(session, entry.getValue());
+            }
+            rows.add(new Object[]{id, entry.getKey(), table.name.apply(entry.getValue())});
+        }
+
+        Dialect dialect = session.getJdbcServices().getDialect();
+        Integer configuredBatchSize = session.getConfiguredJdbcBatchSize();
+        int batchSize = configuredBatchSize == null || configuredBatchSize < 1 ? 1 : configuredBatchSize;
+        session.doWork(connection -> {
+            int full = rows.size() / ROWS_PER_STATEMENT * ROWS_PER_STATEMENT;
+            if (full > 0) {
+                try (PreparedStatement statement = connection.prepareStatement(table.upsertSql(dialect, ROWS_PER_STATEMENT))) {
+                    int batched = 0;
+                    for (int from = 0; from < full; from += ROWS_PER_STATEMENT) {
+                        bind(statement, rows, from, from + ROWS_PER_STATEMENT);
+                        statement.addBatch();
+                        if (++batched % batchSize == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+            }
+            if (full < rows.size()) {
+                try (PreparedStatement statement = connection.prepareStatement(table.upsertSql(dialect, rows.size() - full))) {
+                    bind(statement, rows, full, rows.size());
+                    statement.executeUpdate();
+                }
+            }
+        });
+
+        changePublisher.entityChanged(table.entityClass);
+        return new UpsertResult(rows.size() - existingIds.size(), existingIds.size());
+    }
+
+    private <T> Map<String, Long> existingIds(Table<T> table, List<String> codes) {
+        Map<String, Long> existingIds = new HashMap<>();
+        for (int from = 0; from < codes.size(); from += IN_CLAUSE_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(from + IN_CLAUSE_SIZE, codes.size()));
+            List<Tuple> found = queryFactory
+                    .select(table.codePath, table.idPath)
+                    .from(table.codePath.getRoot())
+                    .where(table.codePath.in(chunk))
+                    .fetch();
+            for (Tuple row : found) {
+                existingIds.put(row.get(table.codePath), row.get(table.idPath));
+            }
+        }
+        return existingIds;
+    }
+
+    private static void bind(PreparedStatement statement, List<Object[]> rows, int from, int to) throws SQLException {
+        int index = 1;
+        for (int i = from; i < to; i++) {
+            Object[] row = rows.get(i);
+            statement.setLong(index++, (Long) row[0]);
+            statement.setString(index++, (String) row[1]);
+            statement.setString(index++, (String) row[2]);
+        }
+    }
+
+    // upsert 대상 테이블 (id, iris code, name 세 컬럼)
+    private static final class Table<T> {
+        private final Class<T> entityClass;
+        private final String tableName;
+        private final String idColumn;
+        private final String codeColumn;
+        private final String nameColumn;
+        private final NumberPath<Long> idPath;
+        private final StringPath codePath;
+        private final Function<T, String> code;
+        private final Function<T, String> name;
+
+        private Table(Class<T> entityClass, String tableName, String idColumn, String codeColumn, String nameColumn,
+                      NumberPath<Long> idPath, StringPath codePath, Function<T, String> code, Function<T, String> name) {
+            this.entityClass = entityClass;
+            this.tableName = tableName;
+            this.idColumn = idColumn;
+            this.codeColumn = codeColumn;
+            this.nameColumn = nameColumn;
+            this.idPath = idPath;
+            this.codePath = codePath;
+            this.code = code;
+            this.name = name;
+        }
+
+        private String upsertSql(Dialect dialect, int rowCount) {
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < rowCount; i++) {
+                values.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            }
+            String columns = " (" + idColumn + ", " + codeColumn + ", " + nameColumn + ")";
+
+            // 이미 있는 code 는 name 만 수정 - 미리 조회한 뒤 다른 트랜잭션이 같은 code 를 넣었어도 그 row 의 id 는 유지
+            if (dialect instanceof H2Dialect) {
+                return "merge into " + tableName + " t using (values " + values + ") s (id, code, name)"
+                        + " on t." + codeColumn + " = s.code"
+                        + " when matched then update set " + nameColumn + " = s.name"
+                        + " when not matched then insert" + columns + " values (s.id, s.code, s.name)";
+            }
+            // on conflict 는 9.5 부터
+            if (dialect instanceof PostgreSQL95Dialect) {
+                return "insert into " + tableName + columns + " values " + values
+                        + " on conflict (" + codeColumn + ") do update set " + nameColumn + " = excluded." + nameColumn;
+            }
+            throw new UnsupportedOperationException("bulk upsert is not supported for " + dialect.getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.repository.ialcon;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class UpsertResult {
+
+    private final int inserted;
+    private final int updated;
+}
@@ -0,0 +1,441 @@
+package study.querydsl.repository.index;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangedEvent;
+import study.querydsl.repository.MemberRepositoryCustom;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// member 검색을 DB 대신 메모리의 컬럼 index 로 처리 (member.columnar-index.enabled)
+// - 기동 시 전체 적재, 이후 commit 된 member/team 변경을 row 단위로 반영 (hibernate post-commit 이벤트)
+// - 이벤트는 commit 순서대로 오지 않으므로 바뀐 id 만 모아두고 DB 에서 다시 읽어서 반영
+// - 조회용 snapshot 은 변경 후 background 스레드에서 다시 만듦 (조회는 잠깐 이전 snapshot 을 볼 수 있음)
+// - bulk update/delete 는 어떤 row 가 바뀌었는지 모르므로 전체 다시 적재
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "member.columnar-index", name = "enabled", havingValue = "true")
+public class MemberColumnarIndex implements MemberRepositoryCustom,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    private final EntityManagerFactory emf;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    // readOnly 면 replica 로 갈 수 있음 - 바뀐 row 는 commit 직후 상태를 primary 에서 읽음
+    private final TransactionTemplate refreshTx;
+    // 이벤트는 다른 트랜잭션의 완료 콜백에서 오므로 다시 적재와 snapshot 생성은 별도 스레드에서
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("member-index-"));
+
+    // 변경 반영용 원본 (lock 으로 보호, 짧게만 잡음), 조회는 불변 snapshot 을 사용
+    private final Object lock = new Object();
+    private Map<Long, MemberColumns.Row> members = new HashMap<>();
+    private Map<Long, String> teams = new HashMap<>();
+    // 이벤트로 들어온 id - refresh 가 DB 에서 다시 읽음
+    private final Set<Long> dirtyMembers = new HashSet<>();
+    private final Set<Long> dirtyTeams = new HashSet<>();
+    private long version;
+    private long builtVersion;
+    private volatile MemberColumns columns;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    public MemberColumnarIndex(EntityManagerFactory emf, JPAQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager) {
+        this.emf = emf;
+        this.queryFactory = queryFactory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.refreshTx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isBulk() && event.isAbout(Member.class, Team.class)) {
+            reloadExecutor.execute(this::reload);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+
+    // DB 조회는 lock 밖에서 - 적재 중에 commit 된 변경은 dirty 로 남아 적재 후 refresh 가 다시 읽음
+    // (reload, refresh 는 synchronized 로 직렬화 - 먼저 읽은 결과가 나중에 덮어쓰지 않도록)
+    public synchronized void reload() {
+        long start = System.nanoTime();
+
+        Map<Long, MemberColumns.Row> loadedMembers = new HashMap<>();
+        Map<Long, String> loadedTeams = new HashMap<>();
+        readOnlyTx.execute(status -> {
+            List<Tuple> teamRows = queryFactory
+                    .select(team.id, team.name)
+                    .from(team)
+                    .fetch();
+            List<Tuple> memberRows = queryFactory
+                    .select(member.id, member.username, member.age, member.team.id)
+                    .from(member)
+                    .fetch();
+
+            for (Tuple row : teamRows) {
+                loadedTeams.put(row.get(team.id), row.get(team.name));
+            }
+            for (Tuple row : memberRows) {
+                Long id = row.get(member.id);
+                loadedMembers.put(id, new MemberColumns.Row(id, row.get(member.username), row.get(member.age), row.get(member.team.id)));
+            }
+            return null;
+        });
+
+        int memberCount;
+        int teamCount;
+        synchronized (lock) {
+            members = loadedMembers;
+            teams = loadedTeams;
+            version++;
+            memberCount = members.size();
+            teamCount = teams.size();
+        }
+        rebuild();
+        log.info("member columnar index loaded: {} members, {} teams in {} ms",
+                memberCount, teamCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        markDirty(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        markDirty(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        markDirty(event.getEntity());
+    }
+
+    // rollback 이면 반영할 것이 없음
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        Class<?> mappedClass = persister.getMappedClass();
+        return Member.class.isAssignableFrom(mappedClass) || Team.class.isAssignableFrom(mappedClass);
+    }
+
+    // 이벤트의 entity 상태는 쓰지 않음 - 늦게 온 이전 commit 의 상태가 최신 상태를 덮어쓸 수 있음
+    private void markDirty(Object entity) {
+        synchronized (lock) {
+            if (entity instanceof Member) {
+                dirtyMembers.add(((Member) entity).getId());
+            } else if (entity instanceof Team) {
+                dirtyTeams.add(((Team) entity).getId());
+            } else {
+                return;
+            }
+        }
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            try {
+                reloadExecutor.execute(() -> {
+                    refreshScheduled.set(false);
+                    refresh();
+                });
+            } catch (RejectedExecutionException e) {
+                // 종료 중
+                refreshScheduled.set(false);
+            }
+        }
+    }
+
+    // 모아둔 id 를 지금 DB 상태로 다시 읽음 (없으면 삭제) - 마지막 refresh 가 마지막 commit 이후에 읽으므로 최신 상태로 수렴
+    synchronized void refresh() {
+        List<Long> memberIds;
+        List<Long> teamIds;
+        synchronized (lock) {
+            memberIds = new ArrayList<>(dirtyMembers);
+            teamIds = new ArrayList<>(dirtyTeams);
+            dirtyMembers.clear();
+            dirtyTeams.clear();
+        }
+        if (memberIds.isEmpty() && teamIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, MemberColumns.Row> foundMembers = new HashMap<>();
+        Map<Long, String> foundTeams = new HashMap<>();
+        try {
+            refreshTx.execute(status -> {
+                for (List<Long> ids : chunks(memberIds)) {
+                    List<Tuple> rows = queryFactory
+                            .select(member.id, member.username, member.age, team.id, team.name)
+                            .from(member)
+                            .leftJoin(member.team, team)
+                            .where(member.id.in(ids))
+                            .fetch();
+                    for (Tuple row : rows) {
+                        Long id = row.get(member.id);
+                        Long teamId = row.get(team.id);
+                        foundMembers.put(id, new MemberColumns.Row(id, row.get(member.username), row.get(member.age), teamId));
+                        if (teamId != null) {
+                            foundTeams.put(teamId, row.get(team.name));
+                        }
+                    }
+                }
+                for (List<Long> ids : chunks(teamIds)) {
+                    List<Tuple> rows = queryFactory
+                            .select(team.id, team.name)
+                            .from(team)
+                            .where(team.id.in(ids))
+                            .fetch();
+                    for (Tuple row : rows) {
+                        foundTeams.put(row.get(team.id), row.get(team.name));
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 다음 이벤트 때 다시 시도
+            synchronized (lock) {
+                dirtyMembers.addAll(memberIds);
+                dirtyTeams.addAll(teamIds);
+            }
+            log.warn("member columnar index refresh failed: {} members, {} teams", memberIds.size(), teamIds.size(), e);
+            return;
+        }
+
+        record((members, teams) -> {
+            teams.putAll(foundTeams);
+            for (Long teamId : teamIds) {
+                if (!foundTeams.containsKey(teamId)) {
+                    teams.remove(teamId);
+                }
+            }
+            for (Long memberId : memberIds) {
+                MemberColumns.Row row = foundMembers.get(memberId);
+                if (row != null) {
+                    members.put(memberId, row);
+                } else {
+                    members.remove(memberId);
+                }
+            }
+        });
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    private void record(Change change) {
+        synchronized (lock) {
+            change.applyTo(members, teams);
+            version++;
+        }
+        scheduleRebuild();
+    }
+
+    // snapshot 은 별도 스레드에서 다시 만듦 - 쓰기와 조회 모두 정렬을 기다리지 않음
+    // (이미 예약된 rebuild 가 시작 전이면 그 rebuild 가 이번 변경도 포함)
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            try {
+                reloadExecutor.execute(() -> {
+                    rebuildScheduled.set(false);
+                    // 첫 적재 전이면 reload 가 만듦
+                    if (columns != null) {
+                        rebuild();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 종료 중
+                rebuildScheduled.set(false);
+            }
+        }
+    }
+
+    // 원본 복사만 lock 안에서, 정렬/인코딩은 밖에서
+    private void rebuild() {
+        List<MemberColumns.Row> memberRows;
+        Map<Long, String> teamNames;
+        long copiedVersion;
+        synchronized (lock) {
+            memberRows = new ArrayList<>(members.values());
+            teamNames = new HashMap<>(teams);
+            copiedVersion = version;
+        }
+
+        MemberColumns built = MemberColumns.build(memberRows, teamNames);
+        synchronized (lock) {
+            // 더 최근 원본으로 만든 snapshot 이 이미 있으면 버림
+            if (columns == null || copiedVersion > builtVersion) {
+                columns = built;
+                builtVersion = copiedVersion;
+            }
+        }
+    }
+
+    // 조회는 마지막으로 만든 snapshot - commit 된 변경은 rebuild 가 끝나면 보임
+    private MemberColumns columns() {
+        MemberColumns current = columns;
+        if (current == null) {
+            throw new IllegalStateException("member columnar index is not loaded yet");
+        }
+        return current;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberColumns current = columns();
+        int[] rows = current.match(condition);
+        return current.toDtos(rows, 0, rows.length);
+    }
+
+    // 메모리 index 라 cursor 가 없음 - row 를 꺼낼 때 DTO 로 만듦 (fetchSize 무시)
+    @Override
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize) {
+        MemberColumns current = columns();
+        return IntStream.of(current.match(condition)).mapToObj(current::toDto);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageComplex(condition, pageable);
+    }
+
+    // total 은 match 결과 길이 (count query 없음)
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        MemberColumns current = columns();
+        int[] rows = current.match(condition);
+        int from = (int) Math.min(pageable.getOffset(), rows.length);
+        int to = Math.min(from + pageable.getPageSize(), rows.length);
+        return new PageImpl<>(current.toDtos(rows, from, to), pageable, rows.length);
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable) {
+        return CompletableFuture.completedFuture(searchPageComplex(condition, pageable));
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        MemberColumns current = columns();
+        int[] rows = current.match(condition);
+        int from = (int) Math.min(pageable.getOffset(), rows.length);
+        int to = Math.min(from + pageable.getPageSize(), rows.length);
+        return new SliceImpl<>(current.toDtos(rows, from, to), pageable, to < rows.length);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long lastMemberId, int size) {
+        MemberColumns current = columns();
+        int[] rows = current.match(condition);
+        int from = 0;
+        if (lastMemberId != null) {
+            // rows 는 member id 순이므로 lastMemberId 다음 위치를 이진 탐색
+            int firstRow = current.firstRowAfter(lastMemberId);
+            from = lowerBound(rows, firstRow);
+        }
+        int to = Math.min(from + size, rows.length);
+        return new SliceImpl<>(current.toDtos(rows, from, to), PageRequest.of(0, size), to < rows.length);
+    }
+
+    private static int lowerBound(int[] sorted, int key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // member/team 원본에 대한 row 단위 변경
+    @FunctionalInterface
+    private interface Change {
+        void applyTo(Map<Long, MemberColumns.Row> members, Map<Long, String> teams);
+    }
+}
@@ -0,0 +1,247 @@
+package study.querydsl.repository.index;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// MemberColumnarIndex 의 불변 snapshot - member 를 컬럼별 primitive 배열로 보관
+// row 순서는 member id 오름차순 (DB 에서 pk 순으로 읽는 것과 같은 순서)
+final class MemberColumns {
+
+    static final int NO_TEAM = -1;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final long[] memberIds;
+    private final String[] usernames;
+    private final int[] ages;
+    private final int[] teamCodes;
+
+    // team dictionary (code = teamIds 에서의 위치)
+    private final long[] teamIds;
+    private final String[] teamNames;
+    private final Map<String, int[]> teamCodesByName;
+
+    private final Map<String, int[]> rowsByUsername;
+
+    // age 범위 검색용 - age 오름차순, 같은 age 는 row 순
+    private final int[] sortedAges;
+    private final int[] rowsByAge;
+
+    private MemberColumns(long[] memberIds, String[] usernames, int[] ages, int[] teamCodes,
+                          long[] teamIds, String[] teamNames, Map<String, int[]> teamCodesByName,
+                          Map<String, int[]> rowsByUsername, int[] sortedAges, int[] rowsByAge) {
+        this.memberIds = memberIds;
+        this.usernames = usernames;
+        this.ages = ages;
+        this.teamCodes = teamCodes;
+        this.teamIds = teamIds;
+        this.teamNames = teamNames;
+        this.teamCodesByName = teamCodesByName;
+        this.rowsByUsername = rowsByUsername;
+        this.sortedAges = sortedAges;
+        this.rowsByAge = rowsByAge;
+    }
+
+    static MemberColumns build(Collection<Row> members, Map<Long, String> teams) {
+        long[] teamIds = teams.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        String[] teamNames = new String[teamIds.length];
+        Map<String, List<Integer>> codesByName = new HashMap<>();
+        for (int code = 0; code < teamIds.length; code++) {
+            teamNames[code] = teams.get(teamIds[code]);
+            if (teamNames[code] != null) {
+                codesByName.computeIfAbsent(teamNames[code], name -> new ArrayList<>()).add(code);
+            }
+        }
+
+        Row[] rows = members.toArray(new Row[0]);
+        Arrays.sort(rows, Comparator.comparingLong(Row::getId));
+
+        int size = rows.length;
+        long[] memberIds = new long[size];
+        String[] usernames = new String[size];
+        int[] ages = new int[size];
+        int[] teamCodes = new int[size];
+        Map<String, List<Integer>> rowsByUsername = new HashMap<>();
+        long[] ageKeys = new long[size];
+
+        for (int row = 0; row < size; row++) {
+            Row member = rows[row];
+            memberIds[row] = member.getId();
+            usernames[row] = member.getUsername();
+            ages[row] = member.getAge();
+            teamCodes[row] = teamCode(teamIds, member.getTeamId());
+            if (member.getUsername() != null) {
+                rowsByUsername.computeIfAbsent(member.getUsername(), name -> new ArrayList<>()).add(row);
+            }
+            // 상위 32bit age, 하위 32bit row -> 정렬하면 (age, row) 순
+            ageKeys[row] = ((long) member.getAge() << 32) | row;
+        }
+
+        Arrays.sort(ageKeys);
+        int[] sortedAges = new int[size];
+        int[] rowsByAge = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedAges[i] = (int) (ageKeys[i] >> 32);
+            rowsByAge[i] = (int) ageKeys[i];
+        }
+
+        return new MemberColumns(memberIds, usernames, ages, teamCodes, teamIds, teamNames,
+                toIntArrays(codesByName), toIntArrays(rowsByUsername), sortedAges, rowsByAge);
+    }
+
+    int size() {
+        return memberIds.length;
+    }
+
+    // 조건에 맞는 row (오름차순)
+    int[] match(MemberSearchCondition condition) {
+        String username = hasText(condition.getUsername()) ? condition.getUsername() : null;
+        int ageGoe = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+        int ageLoe = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+        boolean ageRange = condition.getAgeGoe() != null || condition.getAgeLoe() != null;
+
+        int[] codes = null;
+        if (hasText(condition.getTeamName())) {
+            codes = teamCodesByName.getOrDefault(condition.getTeamName(), NO_ROWS);
+            if (codes.length == 0) {
+                return NO_ROWS;
+            }
+        }
+        if (ageGoe > ageLoe) {
+            return NO_ROWS;
+        }
+
+        // 가장 좁은 접근 경로부터: username hash -> age 범위 -> 전체
+        int[] candidates;
+        boolean checkAge = ageRange;
+        if (username != null) {
+            candidates = rowsByUsername.getOrDefault(username, NO_ROWS);
+        } else if (ageRange) {
+            int from = lowerBound(sortedAges, ageGoe);
+            int to = ageLoe == Integer.MAX_VALUE ? sortedAges.length : lowerBound(sortedAges, ageLoe + 1);
+            candidates = Arrays.copyOfRange(rowsByAge, from, to);
+            Arrays.sort(candidates);
+            checkAge = false;
+        } else if (codes == null) {
+            return allRows();
+        } else {
+            candidates = null;
+        }
+
+        int length = candidates != null ? candidates.length : size();
+        int[] matched = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            int row = candidates != null ? candidates[i] : i;
+            if (checkAge && (ages[row] < ageGoe || ages[row] > ageLoe)) {
+                continue;
+            }
+            if (codes != null && Arrays.binarySearch(codes, teamCodes[row]) < 0) {
+                continue;
+            }
+            matched[count++] = row;
+        }
+        return count == length ? matched : Arrays.copyOf(matched, count);
+    }
+
+    // memberId 보다 큰 첫 row (keyset paging)
+    int firstRowAfter(long memberId) {
+        int index = Arrays.binarySearch(memberIds, memberId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    MemberTeamDto toDto(int row) {
+        int code = teamCodes[row];
+        return new MemberTeamDto(memberIds[row], usernames[row], ages[row],
+                code == NO_TEAM ? null : teamIds[code],
+                code == NO_TEAM ? null : teamNames[code]);
+    }
+
+    List<MemberTeamDto> toDtos(int[] rows, int from, int to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        List<MemberTeamDto> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(toDto(rows[i]));
+        }
+        return result;
+    }
+
+    private int[] allRows() {
+        int[] rows = new int[size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    private static int teamCode(long[] teamIds, Long teamId) {
+        if (teamId == null) {
+            return NO_TEAM;
+        }
+        int code = Arrays.binarySearch(teamIds, teamId);
+        return code >= 0 ? code : NO_TEAM;
+    }
+
+    // key 이상인 첫 위치
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Map<String, int[]> toIntArrays(Map<String, List<Integer>> source) {
+        Map<String, int[]> result = new HashMap<>(source.size() * 2);
+        source.forEach((key, values) -> result.put(key, values.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    static final class Row {
+        private final long id;
+        private final String username;
+        private final int age;
+        private final Long teamId;
+
+        Row(long id, String username, int age, Long teamId) {
+            this.id = id;
+            this.username = username;
+            this.age = age;
+            this.teamId = teamId;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getUsername() {
+            return username;
+        }
+
+        int getAge() {
+            return age;
+        }
+
+        Long getTeamId() {
+            return teamId;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.async-query")
+public class AsyncQueryProperties {
+
+    // 런타임이 virtual thread 를 지원하면 사용 (없으면 아래 pool 로 대체)
+    private boolean virtualThreads = true;
+    // content + count 가 동시에 커넥션을 잡으므로 connection pool 크기보다 작게
+    private int poolSize = 4;
+    private int queueCapacity = 100;
+}
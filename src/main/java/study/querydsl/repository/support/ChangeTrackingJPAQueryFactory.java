@@ -0,0 +1,47 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import study.querydsl.event.EntityChangePublisher;
+
+import javax.persistence.EntityManager;
+
+// bulk update/delete 는 영속성 컨텍스트와 hibernate 이벤트를 거치지 않으므로 execute() 후 변경을 직접 알림
+public class ChangeTrackingJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+    private final EntityChangePublisher changePublisher;
+
+    public ChangeTrackingJPAQueryFactory(EntityManager em, EntityChangePublisher changePublisher) {
+        super(em);
+        this.em = em;
+        this.changePublisher = changePublisher;
+    }
+
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        return new JPAUpdateClause(em, path, JPAProvider.getTemplates(em)) {
+            @Override
+            public long execute() {
+                long affected = super.execute();
+                changePublisher.entityChanged(path.getType());
+                return affected;
+            }
+        };
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        return new JPADeleteClause(em, path, JPAProvider.getTemplates(em)) {
+            @Override
+            public long execute() {
+                long affected = super.execute();
+                changePublisher.entityChanged(path.getType());
+                return affected;
+            }
+        };
+    }
+}
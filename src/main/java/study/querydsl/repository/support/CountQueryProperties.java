@@ -0,0 +1,14 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.count-query")
+public class CountQueryProperties {
+
+    // 조건 없는 count 는 테이블 통계(추정치)가 이 값 이상이면 추정치를 그대로 total 로 사용
+    private boolean estimateEnabled = false;
+    private long estimateThreshold = 1_000_000;
+}
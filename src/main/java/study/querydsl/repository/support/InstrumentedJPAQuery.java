@@ -0,0 +1,98 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// JPQL 생성 시간과 실행 시간을 나눠서 기록 (실행 시간 = 전체 - 생성)
+public class InstrumentedJPAQuery<T> extends JPAQuery<T> {
+
+    private final QueryMetrics metrics;
+
+    private String jpql = "";
+    private String shapeId = "unknown";
+    private Map<Object, String> constants = Collections.emptyMap();
+    private long generationNanos;
+
+    public InstrumentedJPAQuery(EntityManager em, JPQLTemplates templates, QueryMetrics metrics) {
+        super(em, templates);
+        this.metrics = metrics;
+    }
+
+    public InstrumentedJPAQuery(EntityManager em, JPQLTemplates templates, QueryMetadata metadata, QueryMetrics metrics) {
+        super(em, templates, metadata);
+        this.metrics = metrics;
+    }
+
+    // clone() / clone(em) 도 이 경로 - 복사본도 기록되도록 같은 타입으로
+    @Override
+    public InstrumentedJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+        InstrumentedJPAQuery<T> query = new InstrumentedJPAQuery<>(entityManager, templates, getMetadata().clone(), metrics);
+        query.clone(this);
+        return query;
+    }
+
+    @Override
+    protected JPQLSerializer serialize(boolean forCountRow) {
+        long start = System.nanoTime();
+        JPQLSerializer serializer = super.serialize(forCountRow);
+        long elapsed = System.nanoTime() - start;
+        generationNanos += elapsed;
+
+        jpql = serializer.toString();
+        constants = serializer.getConstantToLabel();
+        shapeId = metrics.shapeId(jpql);
+        metrics.recordGeneration(shapeId, elapsed);
+        return serializer;
+    }
+
+    @Override
+    public List<T> fetch() {
+        long start = start();
+        List<T> result = super.fetch();
+        record(QueryMetrics.EXECUTE, start, result.size());
+        return result;
+    }
+
+    @Override
+    public T fetchOne() throws NonUniqueResultException {
+        long start = start();
+        T result = super.fetchOne();
+        record(QueryMetrics.EXECUTE, start, result == null ? 0 : 1);
+        return result;
+    }
+
+    @Override
+    public long fetchCount() {
+        long start = start();
+        long count = super.fetchCount();
+        record(QueryMetrics.COUNT, start, 1);
+        return count;
+    }
+
+    @Override
+    public QueryResults<T> fetchResults() {
+        long start = start();
+        QueryResults<T> results = super.fetchResults();
+        record(QueryMetrics.RESULTS, start, results.getResults().size());
+        return results;
+    }
+
+    private long start() {
+        generationNanos = 0;
+        return System.nanoTime();
+    }
+
+    private void record(String phase, long start, long rows) {
+        long executionNanos = System.nanoTime() - start - generationNanos;
+        metrics.recordExecution(phase, shapeId, jpql, constants, Math.max(executionNanos, 0), rows);
+    }
+}
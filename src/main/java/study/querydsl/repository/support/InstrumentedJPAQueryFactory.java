@@ -0,0 +1,25 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import study.querydsl.event.EntityChangePublisher;
+
+import javax.persistence.EntityManager;
+
+// select/selectFrom/from 으로 만드는 모든 query 를 InstrumentedJPAQuery 로 생성
+public class InstrumentedJPAQueryFactory extends ChangeTrackingJPAQueryFactory {
+
+    private final EntityManager em;
+    private final QueryMetrics metrics;
+
+    public InstrumentedJPAQueryFactory(EntityManager em, EntityChangePublisher changePublisher, QueryMetrics metrics) {
+        super(em, changePublisher);
+        this.em = em;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new InstrumentedJPAQuery<Void>(em, JPAProvider.getTemplates(em), metrics);
+    }
+}
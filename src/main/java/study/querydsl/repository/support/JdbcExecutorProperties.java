@@ -0,0 +1,15 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.jdbc-executor")
+public class JdbcExecutorProperties {
+
+    // 동시에 실행할 querydsl 조회 수 (connection pool 보다 작게 두어 다른 요청 몫을 남김)
+    private int poolSize = 8;
+    // 대기열이 차면 새 요청은 503 으로 거절
+    private int queueCapacity = 200;
+}
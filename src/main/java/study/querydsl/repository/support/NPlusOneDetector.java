@@ -0,0 +1,129 @@
+package study.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// 같은 select 문이 한 요청(또는 트랜잭션) 안에서 threshold 를 넘게 반복되면 N+1 로 판단
+// 요청 범위는 StatementCountInterceptor 가 열고, 요청 밖에서는 트랜잭션 단위로 자동으로 열림
+// 의도된 반복 조회 (team 단위 TeamStats 반영, chunk 단위 bulk 연산 등) 는 ignoring 으로 감싸서 세지 않음
+@Slf4j
+public class NPlusOneDetector implements StatementInspector {
+
+    private final boolean enabled;
+    private final int threshold;
+    private final boolean failOnThreshold;
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> ignored = new ThreadLocal<>();
+
+    public NPlusOneDetector(boolean enabled, int threshold, boolean failOnThreshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.failOnThreshold = failOnThreshold;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (enabled && ignored.get() == null && isSelect(sql)) {
+            Scope scope = scope();
+            if (scope != null) {
+                scope.record(sql);
+            }
+        }
+        return sql;
+    }
+
+    public void beginScope(String name) {
+        currentScope.set(new Scope(name));
+    }
+
+    public void endScope() {
+        currentScope.remove();
+    }
+
+    public <T> T ignoring(Supplier<T> work) {
+        if (ignored.get() != null) {
+            return work.get();
+        }
+        ignored.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            ignored.remove();
+        }
+    }
+
+    public void ignoring(Runnable work) {
+        ignoring(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public int selectCount() {
+        Scope scope = currentScope.get();
+        return scope == null ? 0 : scope.selects;
+    }
+
+    private Scope scope() {
+        Scope scope = currentScope.get();
+        if (scope == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            beginScope(name == null ? "transaction" : name);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    endScope();
+                }
+            });
+            scope = currentScope.get();
+        }
+        return scope;
+    }
+
+    // use_sql_comments 로 앞에 붙는 /* ... */ 주석은 건너뜀
+    static boolean isSelect(String sql) {
+        String statement = sql.trim();
+        while (statement.startsWith("/*")) {
+            int end = statement.indexOf("*/");
+            if (end < 0) {
+                return false;
+            }
+            statement = statement.substring(end + 2).trim();
+        }
+        return statement.regionMatches(true, 0, "select", 0, "select".length());
+    }
+
+    private class Scope {
+        private final String name;
+        private final Map<String, Integer> repeats = new HashMap<>();
+        private int selects;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        private void record(String sql) {
+            selects++;
+            int repeat = repeats.merge(sql, 1, Integer::sum);
+            if (repeat <= threshold) {
+                return;
+            }
+
+            String message = "N+1 query suspected in [" + name + "]: same select executed " + repeat
+                    + " times (threshold " + threshold + "): " + sql.replaceAll("\\s+", " ");
+            if (failOnThreshold) {
+                throw new NPlusOneDetectedException(message);
+            }
+            if (repeat == threshold + 1) {
+                log.warn(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpa.n-plus-one")
+public class NPlusOneProperties {
+
+    private boolean enabled = true;
+    // 같은 select 가 이 횟수를 넘게 반복되면 경고 (fail-on-threshold 면 예외)
+    private int threshold = 10;
+    private boolean failOnThreshold = false;
+}
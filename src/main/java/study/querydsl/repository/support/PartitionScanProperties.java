@@ -0,0 +1,14 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.partition-scan")
+public class PartitionScanProperties {
+
+    // 동시에 scan 할 구간 수 (구간마다 커넥션 하나) - 나머지 구간은 대기열에서 순서대로
+    // connection pool 크기보다 작게 두어 다른 요청 몫을 남김
+    private int maxThreads = 4;
+}
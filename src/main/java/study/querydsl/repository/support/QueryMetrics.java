@@ -0,0 +1,100 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ParamExpression;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+// query 모양(JPQL 문자열) 별 timer - phase: generate(JPQL 생성), execute, count, results(fetchResults)
+// 파라미터 값은 남기지 않고 타입만 남김
+@Slf4j
+public class QueryMetrics {
+
+    public static final String GENERATE = "generate";
+    public static final String EXECUTE = "execute";
+    public static final String COUNT = "count";
+    public static final String RESULTS = "results";
+
+    private static final String OTHER_SHAPE = "other";
+
+    private final MeterRegistry registry;
+    private final long slowQueryThresholdNanos;
+    private final int maxShapes;
+    private final ConcurrentMap<String, String> shapeIds = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry registry, Duration slowQueryThreshold, int maxShapes) {
+        this.registry = registry;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.maxShapes = maxShapes;
+    }
+
+    // tag 수가 무한히 늘지 않도록 maxShapes 이후의 모양은 other 로 묶음
+    public String shapeId(String jpql) {
+        String shapeId = shapeIds.get(jpql);
+        if (shapeId != null) {
+            return shapeId;
+        }
+        if (shapeIds.size() >= maxShapes) {
+            return OTHER_SHAPE;
+        }
+        return shapeIds.computeIfAbsent(jpql, query -> {
+            String id = Integer.toHexString(query.hashCode());
+            log.info("querydsl query shape [{}] {}", id, query.replaceAll("\\s+", " "));
+            return id;
+        });
+    }
+
+    public void recordGeneration(String shapeId, long nanos) {
+        timer(GENERATE, shapeId).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordExecution(String phase, String shapeId, String jpql, Map<Object, String> constants,
+                                long nanos, long rows) {
+        timer(phase, shapeId).record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            DistributionSummary.builder("querydsl.query.rows")
+                    .tag("shape", shapeId)
+                    .register(registry)
+                    .record(rows);
+        }
+
+        if (nanos >= slowQueryThresholdNanos) {
+            log.warn("slow querydsl query [{}] phase={} {}ms rows={} params={} {}",
+                    shapeId, phase, TimeUnit.NANOSECONDS.toMillis(nanos), rows,
+                    parameterShape(constants), jpql.replaceAll("\\s+", " "));
+        }
+    }
+
+    private Timer timer(String phase, String shapeId) {
+        return Timer.builder("querydsl.query")
+                .tag("phase", phase)
+                .tag("shape", shapeId)
+                .register(registry);
+    }
+
+    // ?1:String, ?2:Integer ...
+    static String parameterShape(Map<Object, String> constants) {
+        Map<String, String> byLabel = new TreeMap<>();
+        for (Map.Entry<Object, String> entry : constants.entrySet()) {
+            Object value = entry.getKey();
+            Class<?> type = value instanceof ParamExpression ? ((ParamExpression<?>) value).getType() : value.getClass();
+            byLabel.put(entry.getValue(), type.getSimpleName());
+        }
+        StringBuilder shape = new StringBuilder("[");
+        for (Map.Entry<String, String> entry : byLabel.entrySet()) {
+            if (shape.length() > 1) {
+                shape.append(", ");
+            }
+            shape.append('?').append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return shape.append(']').toString();
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.metrics")
+public class QueryMetricsProperties {
+
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+    private int maxShapes = 500;
+}
@@ -0,0 +1,32 @@
+package study.querydsl.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// 요청 단위로 select 반복 횟수를 셈 (open-in-view 로 view 에서 발생하는 lazy loading 포함)
+// 비동기 요청(CompletableFuture 반환)은 servlet 스레드가 afterConcurrentHandlingStarted 로 빠져나가므로 거기서 범위를 닫음
+// (executor 스레드의 조회는 트랜잭션 단위 범위로 셈)
+@RequiredArgsConstructor
+public class StatementCountInterceptor implements AsyncHandlerInterceptor {
+
+    private final NPlusOneDetector detector;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        detector.beginScope(request.getMethod() + " " + request.getRequestURI());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        detector.endScope();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        detector.endScope();
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// 한 트랜잭션 동안 쌓인 team 별 변화량 (commit 직전에 TeamStats 에 한 번에 반영)
+class TeamStatsChanges {
+
+    // team id 순서로 lock 을 잡도록 정렬
+    private final Map<Long, Delta> deltas = new TreeMap<>();
+
+    void added(Long teamId, int age) {
+        Delta delta = delta(teamId);
+        delta.count++;
+        delta.sum += age;
+        delta.addedMin = Math.min(delta.addedMin, age);
+        delta.addedMax = Math.max(delta.addedMax, age);
+    }
+
+    void removed(Long teamId, int age) {
+        Delta delta = delta(teamId);
+        delta.count--;
+        delta.sum -= age;
+        delta.rangeStale = true;
+    }
+
+    void agesShifted(Long teamId, long rows, int ageDelta) {
+        Delta delta = delta(teamId);
+        delta.sum += rows * ageDelta;
+        delta.rangeStale = true;
+    }
+
+    void removedAll(Long teamId, long rows, long ageSum) {
+        Delta delta = delta(teamId);
+        delta.count -= rows;
+        delta.sum -= ageSum;
+        delta.rangeStale = true;
+    }
+
+    void recompute(Long teamId) {
+        delta(teamId).recompute = true;
+    }
+
+    void teamCreated(Long teamId) {
+        delta(teamId).created = true;
+    }
+
+    void teamDeleted(Long teamId) {
+        delta(teamId).deleted = true;
+    }
+
+    Map<Long, Delta> deltas() {
+        return deltas;
+    }
+
+    private Delta delta(Long teamId) {
+        return deltas.computeIfAbsent(teamId, id -> new Delta());
+    }
+
+    static final class Delta {
+        long count;
+        long sum;
+        int addedMin = Integer.MAX_VALUE;
+        int addedMax = Integer.MIN_VALUE;
+        // 빠진 값이 min/max 였을 수 있으면 team 의 min/max 를 다시 조회
+        boolean rangeStale;
+        // 변화량을 모름 - team 전체를 다시 계산
+        boolean recompute;
+        // 이 트랜잭션에서 team 을 insert/delete 함 - TeamStats row 도 같이 만들고 지움
+        boolean created;
+        boolean deleted;
+
+        boolean hasAdded() {
+            return addedMin <= addedMax;
+        }
+    }
+}
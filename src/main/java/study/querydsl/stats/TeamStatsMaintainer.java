@@ -0,0 +1,232 @@
+package study.querydsl.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.repository.support.NPlusOneDetector;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// member insert/delete/update(team, age) 를 TeamStats 변화량으로 모았다가 commit 직전에 반영
+// - hibernate 의 commit 전 flush 이후에 실행되도록 ActionQueue 의 BeforeTransactionCompletionProcess 사용
+//   (같은 connection 의 임시 session 에서 TeamStats 를 PESSIMISTIC_WRITE 로 읽고 수정 -> 동시 수정은 team 단위로 직렬화)
+// - rollback 이면 아무것도 반영하지 않음
+// - TeamStats row 는 team insert/delete 와 같은 트랜잭션에서 만들고 지움, member 반영은 있는 row 를 수정만 함
+// - bulk update/delete 는 hibernate 이벤트가 없으므로 MemberJpaRepository 가 agesShifted/removedAll 을 직접 호출
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamStatsMaintainer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final NPlusOneDetector nPlusOneDetector;
+
+    private final Map<SessionImplementor, TeamStatsChanges> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            changes(event.getSession()).teamCreated((Long) event.getId());
+            return;
+        }
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Long teamId = teamId(event.getPersister(), event.getState());
+        if (teamId != null) {
+            changes(event.getSession()).added(teamId, age(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        if (oldState == null) {
+            // 이전 상태를 모르면 (detached update 등) 새 team 은 처음부터 다시 계산, 이전 team 은 reconcile 에 맡김
+            Long teamId = teamId(persister, state);
+            if (teamId != null) {
+                changes(event.getSession()).recompute(teamId);
+            }
+            return;
+        }
+
+        Long oldTeamId = teamId(persister, oldState);
+        Long newTeamId = teamId(persister, state);
+        int oldAge = age(persister, oldState);
+        int newAge = age(persister, state);
+        if (oldAge == newAge && (oldTeamId == null ? newTeamId == null : oldTeamId.equals(newTeamId))) {
+            return;
+        }
+
+        TeamStatsChanges changes = changes(event.getSession());
+        if (oldTeamId != null) {
+            changes.removed(oldTeamId, oldAge);
+        }
+        if (newTeamId != null) {
+            changes.added(newTeamId, newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            changes(event.getSession()).teamDeleted((Long) event.getId());
+            return;
+        }
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Long teamId = teamId(event.getPersister(), event.getDeletedState());
+        if (teamId != null) {
+            changes(event.getSession()).removed(teamId, age(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    // bulk update 로 teamId 의 member rows 명의 나이가 ageDelta 만큼 바뀜
+    public void agesShifted(EntityManager em, Long teamId, long rows, int ageDelta) {
+        changes(em.unwrap(SessionImplementor.class)).agesShifted(teamId, rows, ageDelta);
+    }
+
+    // bulk delete 로 teamId 의 member rows 명 (나이 합 ageSum) 이 지워짐
+    public void removedAll(EntityManager em, Long teamId, long rows, long ageSum) {
+        changes(em.unwrap(SessionImplementor.class)).removedAll(teamId, rows, ageSum);
+    }
+
+    private TeamStatsChanges changes(SessionImplementor session) {
+        TeamStatsChanges changes = pending.get(session);
+        if (changes == null) {
+            changes = new TeamStatsChanges();
+            pending.put(session, changes);
+            TeamStatsChanges registered = changes;
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> apply(s, registered));
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> pending.remove(session));
+        }
+        return changes;
+    }
+
+    private void apply(SessionImplementor session, TeamStatsChanges changes) {
+        if (changes.deltas().isEmpty()) {
+            return;
+        }
+        // envers 와 같은 방식 - 같은 connection/트랜잭션의 임시 session
+        Session temporarySession = session.sessionWithOptions()
+                .connection()
+                .autoClose(false)
+                .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                .openSession();
+        try {
+            // team 마다 같은 lock/집계 select - N+1 이 아님
+            nPlusOneDetector.ignoring(() -> {
+                for (Map.Entry<Long, TeamStatsChanges.Delta> entry : changes.deltas().entrySet()) {
+                    apply(temporarySession, entry.getKey(), entry.getValue());
+                }
+                temporarySession.flush();
+            });
+        } finally {
+            temporarySession.close();
+        }
+    }
+
+    private void apply(Session session, Long teamId, TeamStatsChanges.Delta delta) {
+        if (delta.created) {
+            // 아직 commit 전인 team 이라 다른 트랜잭션이 같은 row 를 만들 수 없음 - 이 트랜잭션의 member 까지 포함해서 계산
+            if (!delta.deleted) {
+                session.persist(TeamStatsQueries.compute(session, teamId));
+            }
+            return;
+        }
+        TeamStats stats = session.get(TeamStats.class, teamId, LockMode.PESSIMISTIC_WRITE);
+        if (stats == null) {
+            // TeamStats 이전에 만들어진 team - row 는 reconcile 이 만듦 (여기서 insert 하면 동시 반영끼리 pk 충돌)
+            log.debug("no team stats row for team {}, left to reconcile", teamId);
+            return;
+        }
+        if (delta.deleted) {
+            session.delete(stats);
+            return;
+        }
+        if (delta.recompute) {
+            TeamStats fresh = TeamStatsQueries.compute(session, teamId);
+            stats.replace(fresh.getMemberCount(), fresh.getAgeSum(), fresh.getAgeMin(), fresh.getAgeMax());
+            return;
+        }
+
+        boolean wasEmpty = stats.isEmpty();
+        stats.add(delta.count, delta.sum);
+        if (stats.getMemberCount() <= 0) {
+            stats.replace(0, 0, 0, 0);
+            return;
+        }
+        if (delta.rangeStale) {
+            // (team_id, age) index 로 min/max 만 조회
+            int[] range = TeamStatsQueries.ageRange(session, teamId);
+            stats.changeRange(range[0], range[1]);
+        } else if (delta.hasAdded()) {
+            if (wasEmpty) {
+                stats.changeRange(delta.addedMin, delta.addedMax);
+            } else {
+                stats.widen(delta.addedMin, delta.addedMax);
+            }
+        }
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+}
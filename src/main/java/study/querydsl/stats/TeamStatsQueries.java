@@ -0,0 +1,33 @@
+package study.querydsl.stats;
+
+import org.hibernate.Session;
+import study.querydsl.entity.TeamStats;
+
+// TeamStatsMaintainer 가 commit 직전 임시 session 에서 쓰는 team 단위 조회 (member(team_id, age) index 범위만 읽음)
+final class TeamStatsQueries {
+
+    private TeamStatsQueries() {
+    }
+
+    // member 가 없으면 TeamStats.empty
+    static TeamStats compute(Session session, Long teamId) {
+        Object[] row = (Object[]) session
+                .createQuery("select count(m), sum(m.age), min(m.age), max(m.age) from Member m where m.team.id = :teamId")
+                .setParameter("teamId", teamId)
+                .uniqueResult();
+        long count = ((Number) row[0]).longValue();
+        if (count == 0) {
+            return TeamStats.empty(teamId);
+        }
+        return new TeamStats(teamId, count, ((Number) row[1]).longValue(),
+                ((Number) row[2]).intValue(), ((Number) row[3]).intValue());
+    }
+
+    static int[] ageRange(Session session, Long teamId) {
+        Object[] row = (Object[]) session
+                .createQuery("select min(m.age), max(m.age) from Member m where m.team.id = :teamId")
+                .setParameter("teamId", teamId)
+                .uniqueResult();
+        return new int[]{((Number) row[0]).intValue(), ((Number) row[1]).intValue()};
+    }
+}
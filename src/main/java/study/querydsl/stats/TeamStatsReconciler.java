@@ -0,0 +1,145 @@
+package study.querydsl.stats;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.repository.aggregate.AggregateQueryExecutor;
+import study.querydsl.repository.aggregate.AggregateResult;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.repository.aggregate.AggregateColumn.ints;
+import static study.querydsl.repository.aggregate.AggregateColumn.longs;
+
+// TeamStats 를 member 테이블에서 처음부터 다시 계산해서 비교 - 다르면 고치고 warn (증분 반영이 놓친 경로 확인용)
+// team id 순으로 BATCH_SIZE 개씩, batch 마다 별도 트랜잭션에서 TeamStats 를 먼저 lock 하고 그 team 들만 집계
+// -> 진행 중인 트랜잭션의 증분 반영은 그 batch 가 commit 된 뒤에 그 위에 쌓임 (전체 집계 동안 모든 row 를 잡지 않음)
+@Slf4j
+@Component
+public class TeamStatsReconciler {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final AggregateQueryExecutor aggregateQueryExecutor;
+    private final TransactionTemplate tx;
+
+    public TeamStatsReconciler(EntityManager em, JPAQueryFactory queryFactory, AggregateQueryExecutor aggregateQueryExecutor,
+                               PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.aggregateQueryExecutor = aggregateQueryExecutor;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${team-stats.reconcile.initial-delay:PT1M}",
+            fixedDelayString = "${team-stats.reconcile.interval:PT1H}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    // 고친 team 수
+    public int reconcile() {
+        int drifted = tx.execute(status -> createMissing() + removeOrphans());
+
+        int checked = 0;
+        Long after = Long.MIN_VALUE;
+        while (true) {
+            Long from = after;
+            Batch batch = tx.execute(status -> reconcileBatch(from));
+            drifted += batch.drifted;
+            checked += batch.size;
+            if (batch.size < BATCH_SIZE) {
+                break;
+            }
+            after = batch.lastTeamId;
+        }
+
+        if (drifted > 0) {
+            log.warn("team stats reconciled: {} of {} teams drifted", drifted, checked);
+        }
+        return drifted;
+    }
+
+    // row 가 없는 team (TeamStats 이전에 만들어진 team 등) - 한 문장으로 계산해서 insert
+    // team 과 그 TeamStats row 는 같은 트랜잭션에서 commit 되므로 이 문장이 새 team 만 보고 row 를 못 보는 경우는 없음
+    private int createMissing() {
+        int created = em.createQuery("insert into TeamStats (teamId, memberCount, ageSum, ageMin, ageMax)"
+                + " select t.id, count(m), coalesce(sum(m.age), 0), coalesce(min(m.age), 0), coalesce(max(m.age), 0)"
+                + " from Team t left join t.members m"
+                + " where not exists (select s.teamId from TeamStats s where s.teamId = t.id)"
+                + " group by t.id")
+                .executeUpdate();
+        if (created > 0) {
+            log.warn("team stats created for {} teams without a row", created);
+        }
+        return created;
+    }
+
+    // hibernate 를 거치지 않고 지워진 team
+    private int removeOrphans() {
+        return em.createQuery("delete from TeamStats s where not exists (select t.id from Team t where t.id = s.teamId)")
+                .executeUpdate();
+    }
+
+    private Batch reconcileBatch(Long after) {
+        List<TeamStats> current = em.createQuery(
+                "select s from TeamStats s where s.teamId > :after order by s.teamId", TeamStats.class)
+                .setParameter("after", after)
+                .setMaxResults(BATCH_SIZE)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (current.isEmpty()) {
+            return new Batch(0, 0, null);
+        }
+        Long firstTeamId = current.get(0).getTeamId();
+        Long lastTeamId = current.get(current.size() - 1).getTeamId();
+
+        AggregateResult<Long> actual = aggregateQueryExecutor.fetch(
+                queryFactory.from(member).where(member.team.id.between(firstTeamId, lastTeamId)),
+                member.team.id,
+                longs(member.count()),
+                longs(member.age.sum()),
+                ints(member.age.min()),
+                ints(member.age.max()));
+        long[] counts = actual.longs(0);
+        long[] sums = actual.longs(1);
+        int[] mins = actual.ints(2);
+        int[] maxs = actual.ints(3);
+
+        int drifted = 0;
+        for (TeamStats stats : current) {
+            int row = actual.rowOf(stats.getTeamId());
+            long count = row >= 0 ? counts[row] : 0;
+            long sum = row >= 0 ? sums[row] : 0;
+            int min = row >= 0 ? mins[row] : 0;
+            int max = row >= 0 ? maxs[row] : 0;
+            if (!stats.matches(count, sum, min, max)) {
+                log.warn("team stats drift: {} -> count={}, sum={}, min={}, max={}", stats, count, sum, min, max);
+                stats.replace(count, sum, min, max);
+                drifted++;
+            }
+        }
+        return new Batch(current.size(), drifted, lastTeamId);
+    }
+
+    private static final class Batch {
+        private final int size;
+        private final int drifted;
+        private final Long lastTeamId;
+
+        private Batch(int size, int drifted, Long lastTeamId) {
+            this.size = size;
+            this.drifted = drifted;
+            this.lastTeamId = lastTeamId;
+        }
+    }
+}
@@ -23,10 +23,12 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
+import study.querydsl.dto.UserDtoProjection;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.NPlusOneDetector;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -345,6 +347,41 @@ public class QueryDslBasicTest {
 
     }
 
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
+    // fetch join 없이 team 을 lazy loading 해도 default_batch_fetch_size / @BatchSize 로 IN 절 한 번에 묶임
+    // (team 마다 select 했다면 N+1 threshold(10) 를 넘어 실패)
+    @Test
+    public void fetchJoinNoLazyLoadingIsBatched() {
+        for (int i = 0; i < 20; i++) {
+            Team batchTeam = new Team("batchTeam" + i);
+            em.persist(batchTeam);
+            em.persist(new Member("batchMember" + i, i, batchTeam));
+        }
+        em.flush();
+        em.clear();
+
+        nPlusOneDetector.beginScope("fetchJoinNoLazyLoadingIsBatched");
+        try {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .where(member.username.startsWith("batchMember"))
+                    .fetch();
+            assertThat(members).hasSize(20);
+            assertThat(emf.getPersistenceUnitUtil().isLoaded(members.get(0).getTeam())).isFalse();
+
+            for (Member findMember : members) {
+                assertThat(findMember.getTeam().getName()).startsWith("batchTeam");
+            }
+
+            // member 조회 1 + team 일괄 조회 1
+            assertThat(nPlusOneDetector.selectCount()).isEqualTo(2);
+        } finally {
+            nPlusOneDetector.endScope();
+        }
+    }
+
     @Test
     public void fetchJoinUse() {
         em.flush();
@@ -633,6 +670,30 @@ public class QueryDslBasicTest {
         }
     }
 
+    /**
+     * @ProjectionBean 으로 생성된 UserDtoProjection 사용 (reflection 없이 setter 직접 호출)
+     */
+    @Test
+    public void findDtoByProjectionBean() {
+
+        QMember memberSub = new QMember("memberSub");
+
+        List<UserDto> result = queryFactory
+                .select(new UserDtoProjection(
+                        member.username,
+                        JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub)))
+                .from(member)
+                .where(member.username.in("member1", "member2", "member3", "member4"))
+                .orderBy(member.username.asc())
+                .fetch();
+
+        Integer maxAge = queryFactory.select(member.age.max()).from(member).fetchOne();
+        assertThat(result).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsOnly(maxAge);
+    }
+
     /**
      * 동적쿼리 (BooleanBuilder)
      */
@@ -0,0 +1,74 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CaffeineMemberSearchCacheTest {
+
+    @Test
+    public void cachedResultIsImmutable() {
+        CaffeineMemberSearchCache cache = new CaffeineMemberSearchCache(100);
+        AtomicInteger executed = new AtomicInteger();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        List<MemberTeamDto> first = cache.search(condition, c -> {
+            executed.incrementAndGet();
+            return new ArrayList<>(Collections.singletonList(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")));
+        });
+        List<MemberTeamDto> second = cache.search(condition, c -> {
+            executed.incrementAndGet();
+            return new ArrayList<>();
+        });
+
+        assertThat(executed.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThatThrownBy(() -> second.add(new MemberTeamDto(2L, "member2", 20, 1L, "teamA")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        // 원소도 공유되므로 setter 가 없어야 함
+        assertThat(MemberTeamDto.class.getMethods()).noneMatch(method -> method.getName().startsWith("set"));
+    }
+
+    @Test
+    public void invalidateAll() {
+        CaffeineMemberSearchCache cache = new CaffeineMemberSearchCache(100);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.search(condition, c -> new ArrayList<>());
+        cache.invalidateAll();
+
+        List<MemberTeamDto> result = cache.search(condition,
+                c -> Collections.singletonList(new MemberTeamDto(1L, "member1", 10, null, null)));
+
+        assertThat(result).hasSize(1);
+    }
+
+    @Test
+    public void bypassInWritingTransaction() {
+        CaffeineMemberSearchCache cache = new CaffeineMemberSearchCache(100);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // commit 전 row 가 포함될 수 있는 결과는 저장하지 않음
+            cache.search(condition, c -> Collections.singletonList(new MemberTeamDto(1L, "uncommitted", 10, null, null)));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        List<MemberTeamDto> result = cache.search(condition, c -> new ArrayList<>());
+        assertThat(result).isEmpty();
+        assertThat(cache.estimatedSize()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlMemberCountCacheTest {
+
+    @Test
+    public void hitAfterFirstCount() {
+        TtlMemberCountCache cache = new TtlMemberCountCache(Duration.ofMinutes(1), 10);
+        AtomicInteger executed = new AtomicInteger();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        long first = cache.count(condition, () -> executed.incrementAndGet() * 10L);
+        long second = cache.count(condition, () -> executed.incrementAndGet() * 10L);
+
+        assertThat(first).isEqualTo(10L);
+        assertThat(second).isEqualTo(10L);
+        assertThat(executed.get()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void blankConditionSharesEntry() {
+        TtlMemberCountCache cache = new TtlMemberCountCache(Duration.ofMinutes(1), 10);
+
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUsername("");
+        cache.count(blank, () -> 4L);
+
+        long count = cache.count(new MemberSearchCondition(), () -> 100L);
+
+        assertThat(count).isEqualTo(4L);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateAll() {
+        TtlMemberCountCache cache = new TtlMemberCountCache(Duration.ofMinutes(1), 10);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.count(condition, () -> 4L);
+        cache.invalidateAll();
+        long count = cache.count(condition, () -> 5L);
+
+        assertThat(count).isEqualTo(5L);
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        TtlMemberCountCache cache = new TtlMemberCountCache(Duration.ofMinutes(1), 2);
+
+        for (int age = 10; age <= 30; age += 10) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setAgeGoe(age);
+            cache.count(condition, () -> 1L);
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void bypassInWritingTransaction() {
+        TtlMemberCountCache cache = new TtlMemberCountCache(Duration.ofMinutes(1), 10);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        cache.count(condition, () -> 4L);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // 쓰기 트랜잭션 - commit 전 row 가 포함된 count 는 읽지도 저장하지도 않음
+            assertThat(cache.count(new MemberSearchCondition(), () -> 5L)).isEqualTo(5L);
+            MemberSearchCondition other = new MemberSearchCondition();
+            other.setTeamName("teamA");
+            cache.count(other, () -> 6L);
+            assertThat(cache.size()).isEqualTo(1);
+
+            // read-only 트랜잭션은 캐시 사용
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertThat(cache.count(new MemberSearchCondition(), () -> 7L)).isEqualTo(4L);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+}
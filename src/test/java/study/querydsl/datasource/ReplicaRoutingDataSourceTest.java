@@ -0,0 +1,203 @@
+package study.querydsl.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.DataSourceConfig;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// primary, replica 를 각각 별도 in-memory H2 로 두고 node 테이블의 name 으로 어디서 읽었는지 확인
+class ReplicaRoutingDataSourceTest {
+
+    private final ReplicaDataSource replica1 = new ReplicaDataSource("replica1", node("replica1"));
+    private final ReplicaDataSource replica2 = new ReplicaDataSource("replica2", node("replica2"));
+
+    @Test
+    public void writeGoesToPrimary() {
+        Routing routing = new Routing(ReplicaSelector.roundRobin());
+
+        assertThat(routing.read(false)).isEqualTo("primary");
+        // 트랜잭션 밖
+        assertThat(routing.jdbc.queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    public void roundRobin() {
+        Routing routing = new Routing(ReplicaSelector.roundRobin());
+
+        assertThat(routing.read(true)).isEqualTo("replica1");
+        assertThat(routing.read(true)).isEqualTo("replica2");
+        assertThat(routing.read(true)).isEqualTo("replica1");
+        assertThat(routing.read(true)).isEqualTo("replica2");
+    }
+
+    @Test
+    public void leastOutstanding() throws Exception {
+        Routing routing = new Routing(ReplicaSelector.leastOutstanding());
+
+        try (Connection held = replica1.getConnection()) {
+            assertThat(replica1.getOutstanding()).isEqualTo(1);
+            assertThat(routing.read(true)).isEqualTo("replica2");
+            assertThat(routing.read(true)).isEqualTo("replica2");
+        }
+        assertThat(replica1.getOutstanding()).isEqualTo(0);
+        assertThat(replica2.getOutstanding()).isEqualTo(0);
+    }
+
+    @Test
+    public void skipLaggingReplica() {
+        Routing routing = new Routing(ReplicaSelector.roundRobin());
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(Arrays.asList(replica1, replica2),
+                "select lag from node", Duration.ofSeconds(1));
+
+        new JdbcTemplate(replica2.getTargetDataSource()).update("update node set lag = 5000");
+        monitor.check();
+
+        assertThat(replica2.getLagMillis()).isEqualTo(5000);
+        assertThat(routing.read(true)).isEqualTo("replica1");
+        assertThat(routing.read(true)).isEqualTo("replica1");
+
+        // 모든 replica 가 뒤처지면 primary 에서 읽음
+        new JdbcTemplate(replica1.getTargetDataSource()).update("update node set lag = 5000");
+        monitor.check();
+
+        assertThat(routing.read(true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void jpaTransactionPerEntityManager() {
+        Jpa jpa = new Jpa(ReplicaSelector.roundRobin());
+        try {
+            // open-in-view 가 꺼져 있으면 트랜잭션마다 EntityManager, 커넥션을 새로 얻음
+            assertThat(jpa.read(false)).isEqualTo("primary");
+            assertThat(jpa.read(true)).isEqualTo("replica1");
+            assertThat(jpa.read(false)).isEqualTo("primary");
+        } finally {
+            jpa.close();
+        }
+    }
+
+    @Test
+    public void sharedEntityManagerPinsFirstConnection() {
+        Jpa jpa = new Jpa(ReplicaSelector.roundRobin());
+        try {
+            // open-in-view 처럼 EntityManager 하나를 여러 트랜잭션이 공유하면 첫 커넥션이 계속 쓰임
+            jpa.inSharedEntityManager(() -> {
+                assertThat(jpa.read(false)).isEqualTo("primary");
+                assertThat(jpa.read(true)).isEqualTo("primary");
+            });
+            jpa.inSharedEntityManager(() -> {
+                assertThat(jpa.read(true)).isEqualTo("replica1");
+                assertThat(jpa.read(false)).isEqualTo("replica1");
+            });
+        } finally {
+            jpa.close();
+        }
+    }
+
+    @Test
+    public void replicaRequiresOpenInViewDisabled() {
+        new ApplicationContextRunner()
+                .withPropertyValues("datasource.replica.enabled=true")
+                .withUserConfiguration(DataSourceConfig.class)
+                .run(context -> assertThat(context).getFailure()
+                        .hasRootCauseInstanceOf(IllegalStateException.class)
+                        .hasStackTraceContaining("spring.jpa.open-in-view=false"));
+    }
+
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(20), lag bigint)");
+        jdbc.update("insert into node values (?, 0)", name);
+        return dataSource;
+    }
+
+    private class Routing {
+
+        private final JdbcTemplate jdbc;
+        private final DataSourceTransactionManager transactionManager;
+
+        Routing(ReplicaSelector selector) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(node("primary"),
+                    Arrays.asList(replica1, replica2), selector, Duration.ofSeconds(1));
+            routing.afterPropertiesSet();
+
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        String read(boolean readOnly) {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(readOnly);
+            return tx.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        }
+    }
+
+    // spring boot 와 같은 HibernateJpaVendorAdapter 기본값 (커넥션을 EntityManager 가 닫힐 때까지 잡고 있음)
+    private class Jpa {
+
+        private final LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        private final EntityManagerFactory emf;
+        private final EntityManager em;
+        private final JpaTransactionManager transactionManager;
+
+        Jpa(ReplicaSelector selector) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(node("primary"),
+                    Arrays.asList(replica1, replica2), selector, Duration.ofSeconds(1));
+            routing.afterPropertiesSet();
+
+            factoryBean.setDataSource(new LazyConnectionDataSourceProxy(routing));
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factoryBean.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackage().getName());
+            factoryBean.afterPropertiesSet();
+
+            this.emf = factoryBean.getObject();
+            this.em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+            this.transactionManager = new JpaTransactionManager(emf);
+        }
+
+        String read(boolean readOnly) {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(readOnly);
+            return tx.execute(status -> (String) em.createNativeQuery("select name from node").getSingleResult());
+        }
+
+        // OpenEntityManagerInViewInterceptor 와 같은 방식으로 요청 범위 EntityManager 를 묶음
+        void inSharedEntityManager(Runnable runnable) {
+            EntityManager shared = emf.createEntityManager();
+            TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(shared));
+            try {
+                runnable.run();
+            } finally {
+                TransactionSynchronizationManager.unbindResource(emf);
+                shared.close();
+            }
+        }
+
+        void close() {
+            factoryBean.destroy();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package study.querydsl.entity;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 2차 캐시는 commit 된 데이터만 쓰므로 트랜잭션 밖에서 확인 (em 호출마다 새 영속성 컨텍스트)
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired EntityManager em;
+
+    @Autowired EntityManagerFactory emf;
+
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @Autowired MemberRepository memberRepository;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+    Long memberId;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        tx.execute(status -> {
+            Team team = new Team("cacheTeam");
+            em.persist(team);
+            Member member = new Member("cacheMember", 10, team);
+            em.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+            return null;
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.execute(status -> {
+            em.remove(em.find(Member.class, memberId));
+            em.remove(em.find(Team.class, teamId));
+            return null;
+        });
+    }
+
+    @Test
+    public void findByIdFromCache() {
+        memberJpaRepository.findById(memberId);
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        Member member = memberJpaRepository.findById(memberId).get();
+
+        assertThat(member.getUsername()).isEqualTo("cacheMember");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    public void findByUsernameFromQueryCache() {
+        memberRepository.findByUsername("cacheMember");
+
+        long queryHits = statistics.getQueryCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(memberRepository.findByUsername("cacheMember")).hasSize(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(queryHits + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    public void teamMembersEvictedOnTeamChange() {
+        assertThat(teamMembers(teamId)).containsExactly("cacheMember");
+
+        Long otherTeamId = tx.execute(status -> {
+            Team other = new Team("cacheOtherTeam");
+            em.persist(other);
+            // changeTeam 은 이전 team 의 members 에서 빼지 않음 -> 캐시된 collection 은 무효화돼야 함
+            em.find(Member.class, memberId).changeTeam(other);
+            return other.getId();
+        });
+
+        try {
+            assertThat(teamMembers(teamId)).isEmpty();
+            assertThat(teamMembers(otherTeamId)).containsExactly("cacheMember");
+        } finally {
+            tx.execute(status -> {
+                em.find(Member.class, memberId).changeTeam(em.find(Team.class, teamId));
+                em.remove(em.find(Team.class, otherTeamId));
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void teamMembersEvictedOnDelete() {
+        Long removedId = tx.execute(status -> {
+            Member removed = new Member("cacheRemoved", 20, em.find(Team.class, teamId));
+            em.persist(removed);
+            return removed.getId();
+        });
+        assertThat(teamMembers(teamId)).containsExactlyInAnyOrder("cacheMember", "cacheRemoved");
+
+        tx.execute(status -> {
+            em.remove(em.find(Member.class, removedId));
+            return null;
+        });
+
+        // 지워진 id 가 캐시에 남아 있으면 EntityNotFound 또는 잘못된 member
+        assertThat(teamMembers(teamId)).containsExactly("cacheMember");
+    }
+
+    private List<String> teamMembers(Long id) {
+        return tx.execute(status -> em.find(Team.class, id).getMembers().stream()
+                .map(Member::getUsername)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberCountQueryBuilderTest {
+
+    @Autowired EntityManager em;
+
+    @Autowired JPAQueryFactory queryFactory;
+
+    @Autowired MemberCountQueryBuilder countQueryBuilder;
+
+    @Test
+    public void minimalJoin() {
+        Team team = new Team("countTeam");
+        em.persist(team);
+        em.persist(new Member("countMember", 10, team));
+        em.persist(new Member("countMember", 20, team));
+        em.persist(new Member("countMember", 30));
+
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("countMember");
+
+        assertThat(countQueryBuilder.query(byUsername).toString()).doesNotContain("join");
+        assertThat(countQueryBuilder.count(byUsername)).isEqualTo(3);
+
+        MemberSearchCondition byTeamName = new MemberSearchCondition();
+        byTeamName.setTeamName("countTeam");
+        byTeamName.setAgeGoe(15);
+
+        assertThat(countQueryBuilder.query(byTeamName).toString()).contains("inner join");
+        assertThat(countQueryBuilder.count(byTeamName)).isEqualTo(1);
+    }
+
+    @Test
+    public void estimateOnlyAboveThreshold() {
+        em.persist(new Member("estimateMember", 10));
+        em.flush();
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        long exact = countQueryBuilder.query(all).fetchOne();
+
+        // 추정치가 threshold 미만이면 정확한 count
+        MemberCountQueryBuilder exactBelowThreshold = new MemberCountQueryBuilder(queryFactory, em, true, Long.MAX_VALUE);
+        assertThat(exactBelowThreshold.count(all)).isEqualTo(exact);
+
+        MemberCountQueryBuilder estimating = new MemberCountQueryBuilder(queryFactory, em, true, 0);
+        Long estimate = estimating.estimateRowCount();
+        assertThat(estimate).isNotNull();
+
+        // 추정치 경로는 count query(JPQL)를 실행하지 않음
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long queriesBefore = statistics.getQueryExecutionCount();
+        assertThat(estimating.count(all)).isEqualTo(estimate);
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(queriesBefore);
+
+        // 조건이 있으면 추정치를 쓰지 않음
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("estimateMember");
+        assertThat(estimating.count(byUsername)).isEqualTo(1);
+    }
+}
@@ -1,9 +1,13 @@
 package study.querydsl.repository;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -11,9 +15,15 @@ import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
 @Transactional
@@ -25,6 +35,12 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @Test
     public void basicTest() {
         Member member1 = new Member("member1", 10);
@@ -64,4 +80,171 @@ class MemberJpaRepositoryTest {
 
 //        assertThat(result).extracting("username").containsExactly("member3", "member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchTemplateMatchesBuilder() {
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition empty = new MemberSearchCondition();
+
+        MemberSearchCondition teamAndAge = new MemberSearchCondition();
+        teamAndAge.setTeamName("teamB");
+        teamAndAge.setAgeGoe(35);
+
+        MemberSearchCondition usernameAndAge = new MemberSearchCondition();
+        usernameAndAge.setUsername("member2");
+        usernameAndAge.setAgeLoe(20);
+
+        for (MemberSearchCondition condition : new MemberSearchCondition[]{empty, teamAndAge, usernameAndAge}) {
+            // 같은 모양을 두 번 호출해 캐시된 템플릿도 확인
+            memberJpaRepository.search(condition);
+            List<MemberTeamDto> result = memberJpaRepository.search(condition);
+
+            assertThat(result).usingFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByBuilder(condition));
+        }
+
+        assertThat(memberJpaRepository.search(teamAndAge)).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    public void exportTest() {
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+
+        List<String> usernames = new ArrayList<>();
+        long count = memberJpaRepository.export(new MemberSearchCondition(), 2, dto -> usernames.add(dto.getUsername()));
+
+        assertThat(count).isEqualTo(5);
+        assertThat(usernames).containsExactlyInAnyOrder("member0", "member1", "member2", "member3", "member4");
+    }
+
+    @Test
+    public void saveAllTest() {
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("member" + i, i, teamA));
+        }
+
+        long saved = memberJpaRepository.saveAll(members, 3);
+
+        assertThat(saved).isEqualTo(10);
+        assertThat(members).allMatch(m -> m.getId() != null);
+        assertThat(memberJpaRepository.findAll()).hasSize(10);
+    }
+
+    @Test
+    public void bulkUpdateAgeTest() {
+        Team teamA = new Team("bulkTeamA");
+        Team teamB = new Team("bulkTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("bulkMember1", 10, teamA);
+        Member member2 = new Member("bulkMember2", 20, teamA);
+        Member member3 = new Member("bulkMember3", 30, teamA);
+        Member member4 = new Member("bulkMember4", 30, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("bulkTeamA");
+        condition.setAgeGoe(20);
+
+        // id 범위 chunk 여러 개로 나눠 실행
+        long updated = memberJpaRepository.bulkUpdateAge(condition, 1, 1);
+
+        assertThat(updated).isEqualTo(2);
+        // 바뀐 member 만 영속성 컨텍스트에서 빠짐
+        assertThat(em.contains(member1)).isTrue();
+        assertThat(em.contains(member2)).isFalse();
+        assertThat(em.contains(member3)).isFalse();
+        assertThat(em.contains(member4)).isTrue();
+
+        assertThat(em.find(Member.class, member2.getId()).getAge()).isEqualTo(21);
+        assertThat(em.find(Member.class, member3.getId()).getAge()).isEqualTo(31);
+        assertThat(em.find(Member.class, member4.getId()).getAge()).isEqualTo(30);
+    }
+
+    @Test
+    public void bulkDeleteTest() {
+        Member member1 = new Member("bulkDeleteMember", 10);
+        Member member2 = new Member("bulkDeleteMember", 20);
+        em.persist(member1);
+        em.persist(member2);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("bulkDeleteMember");
+        condition.setAgeLoe(10);
+
+        assertThat(memberJpaRepository.bulkDelete(condition)).isEqualTo(1);
+        assertThat(em.contains(member1)).isFalse();
+        assertThat(em.find(Member.class, member1.getId())).isNull();
+        assertThat(em.contains(member2)).isTrue();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forEachPartitionedTest() {
+        // 구간마다 별도 트랜잭션이므로 commit 된 데이터로 확인
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            members.add(new Member("partitionMember" + i, i));
+        }
+        memberJpaRepository.saveAll(members, 100);
+
+        try {
+            Set<String> usernames = ConcurrentHashMap.newKeySet();
+            long count = memberJpaRepository.forEachPartitioned(3, 2, member -> {
+                if (member.getUsername().startsWith("partitionMember")) {
+                    usernames.add(member.getUsername());
+                }
+            });
+
+            assertThat(count).isGreaterThanOrEqualTo(7);
+            assertThat(usernames).hasSize(7);
+
+            // 구간 결과는 id 순서, 구간끼리 겹치지 않음
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            List<List<Long>> chunks = memberJpaRepository.scanPartitioned(3, 2, rows -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return rows.map(Member::getId).collect(Collectors.toList());
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+            List<Long> ids = chunks.stream().flatMap(List::stream).collect(Collectors.toList());
+            assertThat(ids).isSorted().doesNotHaveDuplicates().hasSize((int) count);
+            // 동시에 실행되는 구간은 max-threads (테스트 설정 2) 까지
+            assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        } finally {
+            new TransactionTemplate(transactionManager).execute(status -> queryFactory
+                    .delete(member)
+                    .where(member.username.startsWith("partitionMember"))
+                    .execute());
+        }
+    }
+}
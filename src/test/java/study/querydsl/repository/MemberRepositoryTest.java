@@ -3,8 +3,12 @@ package study.querydsl.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
@@ -13,7 +17,11 @@ import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -132,4 +140,146 @@ class MemberRepositoryTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchSlice() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, null, 3);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.hasNext()).isTrue();
+
+        Long lastMemberId = first.getContent().get(2).getMemberId();
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, lastMemberId, 3);
+
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+
+    @Test
+    public void searchSliceByPageable() {
+        Team team = new Team("sliceTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("sliceMember" + i, i * 10, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sliceTeam");
+
+        // sort 가 없으면 member id 순
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2));
+
+        assertThat(first.getContent()).extracting("username").containsExactly("sliceMember1", "sliceMember2");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(2, 2));
+
+        assertThat(last.getContent()).extracting("username").containsExactly("sliceMember5");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchSliceByPageableSorted() {
+        Team team = new Team("sortTeam");
+        em.persist(team);
+        em.persist(new Member("sortMember1", 10, team));
+        em.persist(new Member("sortMember2", 20, team));
+        em.persist(new Member("sortMember3", 20, team));
+        em.persist(new Member("sortMember4", 30, team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sortTeam");
+
+        // 같은 age 는 member id 순
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        assertThat(first.getContent()).extracting("username").containsExactly("sortMember4", "sortMember2");
+        assertThat(second.getContent()).extracting("username").containsExactly("sortMember3", "sortMember1");
+        assertThat(second.hasNext()).isFalse();
+
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> memberRepository.searchSlice(condition, PageRequest.of(0, 2, Sort.by("password"))));
+    }
+
+    @Test
+    public void streamSearch() {
+        Team team = new Team("streamTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("streamMember" + i, i * 10, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("streamTeam");
+        condition.setAgeGoe(20);
+
+        List<String> usernames;
+        try (Stream<MemberTeamDto> stream = memberRepository.streamSearch(condition, 2)) {
+            usernames = stream.map(MemberTeamDto::getUsername).collect(Collectors.toList());
+        }
+
+        // search 에 order by 가 없으므로 순서는 보지 않음
+        assertThat(usernames).containsExactlyInAnyOrder("streamMember2", "streamMember3", "streamMember4", "streamMember5");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamSearchOutsideTransaction() {
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> memberRepository.streamSearch(new MemberSearchCondition(), 100));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void searchPageAsync() throws Exception {
+        // 비동기 조회는 별도 트랜잭션이므로 commit 된 데이터로 확인
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("asyncMember" + i, 1000 + i));
+        }
+        memberRepository.saveAll(members);
+
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setAgeGoe(1000);
+
+            // search 에 order by 가 없으므로 페이지별 순서 대신 크기와 두 페이지의 합만 확인
+            Page<MemberTeamDto> first = memberRepository.searchPageAsync(condition, PageRequest.of(0, 3))
+                    .get(5, TimeUnit.SECONDS);
+            assertThat(first.getContent()).hasSize(3);
+            assertThat(first.getTotalElements()).isEqualTo(5);
+
+            // 마지막 페이지는 content 만으로 total 계산
+            Page<MemberTeamDto> last = memberRepository.searchPageAsync(condition, PageRequest.of(1, 3))
+                    .get(5, TimeUnit.SECONDS);
+            assertThat(last.getContent()).hasSize(2);
+            assertThat(last.getTotalElements()).isEqualTo(5);
+
+            List<MemberTeamDto> both = new ArrayList<>(first.getContent());
+            both.addAll(last.getContent());
+            assertThat(both).extracting("username").containsExactlyInAnyOrder(
+                    "asyncMember0", "asyncMember1", "asyncMember2", "asyncMember3", "asyncMember4");
+        } finally {
+            memberRepository.deleteAll(members);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package study.querydsl.repository.aggregate;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.aggregate.AggregateColumn.doubles;
+import static study.querydsl.repository.aggregate.AggregateColumn.ints;
+import static study.querydsl.repository.aggregate.AggregateColumn.longs;
+
+@SpringBootTest
+@Transactional
+class AggregateQueryExecutorTest {
+
+    @Autowired EntityManager em;
+
+    @Autowired JPAQueryFactory queryFactory;
+
+    @Autowired AggregateQueryExecutor aggregateQueryExecutor;
+
+    @Test
+    public void groupByTeam() {
+        Team teamA = new Team("aggTeamA");
+        Team teamB = new Team("aggTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("aggMember1", 10, teamA));
+        em.persist(new Member("aggMember2", 25, teamA));
+        em.persist(new Member("aggMember3", 30, teamB));
+        em.persist(new Member("aggMember4", 40, teamB));
+        em.persist(new Member("aggMember5", 50, teamB));
+
+        // flush 전 상태로 호출 (executor 가 flush 해야 보임)
+        AggregateResult<String> result = aggregateQueryExecutor.fetch(
+                queryFactory.from(member).join(member.team, team).where(team.name.startsWith("aggTeam")),
+                team.name,
+                longs(member.count()),
+                longs(member.age.sum()),
+                doubles(member.age.avg()),
+                ints(member.age.min()),
+                ints(member.age.max()));
+
+        assertThat(result.size()).isEqualTo(2);
+        int a = result.rowOf("aggTeamA");
+        int b = result.rowOf("aggTeamB");
+        assertThat(result.rowOf("none")).isEqualTo(-1);
+
+        assertThat(result.longs(0)[a]).isEqualTo(2);
+        assertThat(result.longs(1)[a]).isEqualTo(35);
+        assertThat(result.doubles(2)[a]).isEqualTo(17.5);
+        assertThat(result.ints(3)[a]).isEqualTo(10);
+        assertThat(result.ints(4)[a]).isEqualTo(25);
+
+        assertThat(result.longs(0)[b]).isEqualTo(3);
+        assertThat(result.longs(1)[b]).isEqualTo(120);
+        assertThat(result.doubles(2)[b]).isEqualTo(40.0);
+        assertThat(result.ints(3)[b]).isEqualTo(30);
+        assertThat(result.ints(4)[b]).isEqualTo(50);
+
+        assertThatThrownBy(() -> result.ints(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void sameAsTupleQuery() {
+        Team team1 = new Team("aggTupleTeam");
+        em.persist(team1);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("aggTuple" + i, i, team1));
+        }
+
+        List<Tuple> tuples = queryFactory
+                .select(team.name, member.count(), member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .where(member.age.goe(20))
+                .groupBy(team.name)
+                .fetch();
+
+        AggregateResult<String> result = aggregateQueryExecutor.fetch(
+                queryFactory.from(member).join(member.team, team).where(member.age.goe(20)),
+                team.name,
+                longs(member.count()),
+                doubles(member.age.avg()));
+
+        assertThat(result.size()).isEqualTo(tuples.size());
+        for (Tuple tuple : tuples) {
+            int row = result.rowOf(tuple.get(team.name));
+            assertThat(result.longs(0)[row]).isEqualTo(tuple.get(member.count()));
+            assertThat(result.doubles(1)[row]).isEqualTo(tuple.get(member.age.avg()));
+        }
+    }
+
+    @Test
+    public void paramAndCallerQueryUntouched() {
+        Team team1 = new Team("aggParamTeam");
+        em.persist(team1);
+        em.persist(new Member("aggParam1", 10, team1));
+        em.persist(new Member("aggParam2", 20, team1));
+        em.persist(new Member("aggParam3", 30, team1));
+
+        Param<Integer> minAge = new Param<>(Integer.class, "minAge");
+        JPAQuery<?> query = queryFactory.from(member).join(member.team, team)
+                .where(team.name.eq("aggParamTeam"), member.age.goe(minAge))
+                .set(minAge, 20);
+
+        AggregateResult<String> result = aggregateQueryExecutor.fetch(query, team.name, longs(member.count()));
+
+        assertThat(result.longs(0)[result.rowOf("aggParamTeam")]).isEqualTo(2);
+        // 호출한 쪽 query 에는 select/groupBy 가 붙지 않음
+        assertThat(query.getMetadata().getProjection()).isNull();
+        assertThat(query.getMetadata().getGroupBy()).isEmpty();
+
+        JPAQuery<?> unset = queryFactory.from(member).where(member.age.goe(minAge));
+        assertThatThrownBy(() -> aggregateQueryExecutor.fetch(unset, member.username, longs(member.count())))
+                .isInstanceOf(ParamNotSetException.class);
+    }
+
+    @Test
+    public void limitIsRejected() {
+        assertThatThrownBy(() -> aggregateQueryExecutor.fetch(
+                queryFactory.from(member).join(member.team, team).limit(10),
+                team.name,
+                longs(member.count())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
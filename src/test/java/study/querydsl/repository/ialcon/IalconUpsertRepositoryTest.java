@@ -0,0 +1,87 @@
+package study.querydsl.repository.ialcon;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.ialcon.Customer;
+import study.querydsl.entity.ialcon.Product;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class IalconUpsertRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    IalconUpsertRepository upsertRepository;
+
+    @Test
+    public void upsertProducts() {
+        Product before = new Product("before", "upsert-p1");
+        em.persist(before);
+        Long beforeId = before.getId();
+        em.flush();
+        em.clear();
+
+        // 50 개씩 묶인 statement + 나머지 statement 가 모두 나가도록 120 건
+        List<Product> products = new ArrayList<>();
+        products.add(new Product("after", "upsert-p1"));
+        for (int i = 2; i <= 120; i++) {
+            products.add(new Product("new" + i, "upsert-p" + i));
+        }
+
+        UpsertResult result = upsertRepository.upsertProducts(products);
+
+        assertThat(result.getInserted()).isEqualTo(119);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(productName("upsert-p1")).isEqualTo("after");
+        // 이미 있던 row 는 name 만 바뀌고 id 는 그대로
+        assertThat(em.createQuery("select p.id from Product p where p.productIrisCode = 'upsert-p1'", Long.class)
+                .getSingleResult()).isEqualTo(beforeId);
+        assertThat(productName("upsert-p120")).isEqualTo("new120");
+        Long count = em.createQuery("select count(p) from Product p where p.productIrisCode like 'upsert-p%'", Long.class)
+                .getSingleResult();
+        assertThat(count).isEqualTo(120L);
+    }
+
+    @Test
+    public void upsertCustomersDuplicateKeyLastWins() {
+        UpsertResult first = upsertRepository.upsertCustomers(Arrays.asList(
+                new Customer("c1", "upsert-c1"),
+                new Customer("c2", "upsert-c2"),
+                new Customer("c2-again", "upsert-c2")));
+
+        assertThat(first.getInserted()).isEqualTo(2);
+        assertThat(first.getUpdated()).isEqualTo(0);
+        assertThat(customerName("upsert-c2")).isEqualTo("c2-again");
+
+        UpsertResult second = upsertRepository.upsertCustomers(Arrays.asList(
+                new Customer("c1-renamed", "upsert-c1"),
+                new Customer("c3", "upsert-c3")));
+
+        assertThat(second.getInserted()).isEqualTo(1);
+        assertThat(second.getUpdated()).isEqualTo(1);
+        assertThat(customerName("upsert-c1")).isEqualTo("c1-renamed");
+    }
+
+    private String productName(String irisCode) {
+        return em.createQuery("select p.productName from Product p where p.productIrisCode = :code", String.class)
+                .setParameter("code", irisCode)
+                .getSingleResult();
+    }
+
+    private String customerName(String irisCode) {
+        return em.createQuery("select c.customerName from Customer c where c.customerIrisCode = :code", String.class)
+                .setParameter("code", irisCode)
+                .getSingleResult();
+    }
+}
@@ -10,8 +10,10 @@ import study.querydsl.entity.ialcon.Product;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -67,4 +69,17 @@ class ProductRepositoryTest {
 
     }
 
+    @Test
+    public void saveAllTest() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            products.add(new Product("bulk" + i, "b" + i));
+        }
+
+        List<Product> saved = productRepository.saveAll(products);
+
+        // pooled sequence 로 미리 할당된 id (insert 는 jdbc batch 로 묶여서 나감)
+        assertThat(saved).extracting("id").doesNotContainNull().doesNotHaveDuplicates();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package study.querydsl.repository.index;
+
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 변경은 commit 후 이벤트로 반영되므로 트랜잭션 밖에서 확인
+@SpringBootTest(properties = "member.columnar-index.enabled=true")
+class MemberColumnarIndexTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Autowired EntityManager em;
+
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Autowired MemberColumnarIndex index;
+
+    TransactionTemplate tx;
+    Long teamId;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        index.reload();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.execute(status -> {
+            if (memberId != null && em.find(Member.class, memberId) != null) {
+                em.remove(em.find(Member.class, memberId));
+            }
+            if (teamId != null) {
+                em.remove(em.find(Team.class, teamId));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void writeThenRead() {
+        tx.execute(status -> {
+            Team team = new Team("indexTeam");
+            em.persist(team);
+            Member member = new Member("indexMember", 25, team);
+            em.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+            return null;
+        });
+
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("indexMember");
+        List<MemberTeamDto> inserted = awaitSearch(byUsername, result -> result.size() == 1);
+        assertThat(inserted.get(0).getAge()).isEqualTo(25);
+        assertThat(inserted.get(0).getTeamName()).isEqualTo("indexTeam");
+
+        // 나이 변경 -> age 범위 검색 (정렬된 age 컬럼) 에도 반영
+        tx.execute(status -> {
+            em.find(Member.class, memberId).setAge(77);
+            return null;
+        });
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(77);
+        byAge.setAgeLoe(77);
+        assertThat(awaitSearch(byAge, result -> !result.isEmpty()))
+                .extracting("memberId").contains(memberId);
+
+        tx.execute(status -> {
+            em.remove(em.find(Member.class, memberId));
+            return null;
+        });
+        assertThat(awaitSearch(byUsername, List::isEmpty)).isEmpty();
+    }
+
+    @Test
+    public void lateEventDoesNotOverwriteNewerCommit() {
+        Member stale = tx.execute(status -> {
+            Team team = new Team("indexTeam");
+            em.persist(team);
+            Member member = new Member("lateMember", 25, team);
+            em.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+            return member;
+        });
+        tx.execute(status -> {
+            em.find(Member.class, memberId).setAge(30);
+            return null;
+        });
+
+        // 이전 commit (age 25) 의 이벤트가 나중에 도착한 경우
+        index.onPostUpdate(new PostUpdateEvent(stale, memberId, null, null, null, null, null));
+
+        // 다른 row (team) 변경이 보이면 그 전에 온 이벤트도 반영된 것
+        tx.execute(status -> {
+            em.find(Team.class, teamId).setName("indexTeam2");
+            return null;
+        });
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setUsername("lateMember");
+        byTeam.setTeamName("indexTeam2");
+        List<MemberTeamDto> result = awaitSearch(byTeam, r -> r.size() == 1);
+
+        assertThat(result).extracting("age").containsExactly(30);
+    }
+
+    // snapshot 은 background 에서 다시 만들어지므로 조건을 만족할 때까지 기다림
+    private List<MemberTeamDto> awaitSearch(MemberSearchCondition condition, Predicate<List<MemberTeamDto>> done) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        List<MemberTeamDto> result = index.search(condition);
+        while (!done.test(result) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            result = index.search(condition);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.repository.index;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnsTest {
+
+    private final MemberColumns columns = MemberColumns.build(Arrays.asList(
+            new MemberColumns.Row(4, "member4", 40, 2L),
+            new MemberColumns.Row(1, "member1", 10, 1L),
+            new MemberColumns.Row(3, "member3", 30, 2L),
+            new MemberColumns.Row(2, "member2", 20, 1L),
+            new MemberColumns.Row(5, "member1", 35, null)
+    ), teams());
+
+    private static Map<Long, String> teams() {
+        Map<Long, String> teams = new HashMap<>();
+        teams.put(1L, "teamA");
+        teams.put(2L, "teamB");
+        return teams;
+    }
+
+    @Test
+    public void searchAll() {
+        List<MemberTeamDto> result = search(new MemberSearchCondition());
+
+        assertThat(result).extracting("memberId").containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(result.get(0).getTeamName()).isEqualTo("teamA");
+        assertThat(result.get(4).getTeamId()).isNull();
+    }
+
+    @Test
+    public void searchByCondition() {
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("member1");
+        assertThat(search(byUsername)).extracting("memberId").containsExactly(1L, 5L);
+
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(20);
+        byAge.setAgeLoe(35);
+        assertThat(search(byAge)).extracting("memberId").containsExactly(2L, 3L, 5L);
+
+        MemberSearchCondition byTeamAndAge = new MemberSearchCondition();
+        byTeamAndAge.setTeamName("teamB");
+        byTeamAndAge.setAgeGoe(35);
+        assertThat(search(byTeamAndAge)).extracting("username").containsExactly("member4");
+
+        MemberSearchCondition unknownTeam = new MemberSearchCondition();
+        unknownTeam.setTeamName("teamC");
+        assertThat(search(unknownTeam)).isEmpty();
+    }
+
+    @Test
+    public void firstRowAfter() {
+        assertThat(columns.firstRowAfter(0)).isEqualTo(0);
+        assertThat(columns.firstRowAfter(3)).isEqualTo(3);
+        assertThat(columns.firstRowAfter(5)).isEqualTo(5);
+    }
+
+    private List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int[] rows = columns.match(condition);
+        return columns.toDtos(rows, 0, rows.length);
+    }
+}
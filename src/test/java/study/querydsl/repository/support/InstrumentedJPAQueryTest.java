@@ -0,0 +1,55 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class InstrumentedJPAQueryTest {
+
+    @Autowired EntityManager em;
+
+    @Autowired JPAQueryFactory queryFactory;
+
+    @Autowired MeterRegistry registry;
+
+    @Test
+    public void factoryQueryRecordsMetrics() {
+        em.persist(new Member("metricsMember", 10));
+
+        long executed = count(QueryMetrics.EXECUTE);
+        long generated = count(QueryMetrics.GENERATE);
+        long counted = count(QueryMetrics.COUNT);
+
+        JPAQuery<Member> query = queryFactory.selectFrom(member).where(member.username.eq("metricsMember"));
+        assertThat(query).isInstanceOf(InstrumentedJPAQuery.class);
+        assertThat(query.fetch()).hasSize(1);
+
+        assertThat(count(QueryMetrics.EXECUTE)).isEqualTo(executed + 1);
+        assertThat(count(QueryMetrics.GENERATE)).isGreaterThan(generated);
+
+        // 복사본도 기록됨
+        JPAQuery<Member> cloned = query.clone();
+        assertThat(cloned).isInstanceOf(InstrumentedJPAQuery.class);
+        assertThat(cloned.fetchCount()).isEqualTo(1);
+        assertThat(count(QueryMetrics.COUNT)).isEqualTo(counted + 1);
+    }
+
+    private long count(String phase) {
+        return registry.find("querydsl.query").tag("phase", phase).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
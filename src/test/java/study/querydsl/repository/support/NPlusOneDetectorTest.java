@@ -0,0 +1,63 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NPlusOneDetectorTest {
+
+    private static final String SELECT_TEAM = "/* load study.querydsl.entity.Team */ select team0_.id as id1_1_0_ from team team0_ where team0_.id=?";
+
+    @Test
+    public void failWhenSameSelectRepeated() {
+        NPlusOneDetector detector = new NPlusOneDetector(true, 3, true);
+        detector.beginScope("test");
+
+        for (int i = 0; i < 3; i++) {
+            detector.inspect(SELECT_TEAM);
+        }
+
+        assertThatThrownBy(() -> detector.inspect(SELECT_TEAM))
+                .isInstanceOf(NPlusOneDetectedException.class);
+        detector.endScope();
+    }
+
+    @Test
+    public void countOnlySelects() {
+        NPlusOneDetector detector = new NPlusOneDetector(true, 3, true);
+        detector.beginScope("test");
+
+        for (int i = 0; i < 10; i++) {
+            detector.inspect("insert into member (age, team_id, username, member_id) values (?, ?, ?, ?)");
+        }
+        detector.inspect(SELECT_TEAM);
+
+        assertThat(detector.selectCount()).isEqualTo(1);
+        detector.endScope();
+    }
+
+    @Test
+    public void ignoringIsNotCounted() {
+        NPlusOneDetector detector = new NPlusOneDetector(true, 3, true);
+        detector.beginScope("test");
+
+        // team 단위 반영처럼 의도된 반복
+        detector.ignoring(() -> {
+            for (int i = 0; i < 10; i++) {
+                detector.inspect(SELECT_TEAM);
+            }
+        });
+        detector.inspect(SELECT_TEAM);
+
+        assertThat(detector.selectCount()).isEqualTo(1);
+        detector.endScope();
+    }
+
+    @Test
+    public void isSelect() {
+        assertThat(NPlusOneDetector.isSelect(SELECT_TEAM)).isTrue();
+        assertThat(NPlusOneDetector.isSelect("  SELECT 1")).isTrue();
+        assertThat(NPlusOneDetector.isSelect("/* insert */ insert into team values (?)")).isFalse();
+    }
+}
@@ -0,0 +1,46 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsTest {
+
+    @Test
+    public void recordByShape() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryMetrics metrics = new QueryMetrics(registry, Duration.ofSeconds(1), 10);
+
+        String jpql = "select member1 from Member member1 where member1.username = ?1";
+        String shapeId = metrics.shapeId(jpql);
+
+        Map<Object, String> constants = new HashMap<>();
+        constants.put("member1", "1");
+
+        metrics.recordGeneration(shapeId, 1_000);
+        metrics.recordExecution(QueryMetrics.EXECUTE, shapeId, jpql, constants, 2_000_000, 3);
+        metrics.recordExecution(QueryMetrics.EXECUTE, shapeId, jpql, constants, 2_000_000, 5);
+
+        Timer execute = registry.get("querydsl.query").tag("phase", "execute").tag("shape", shapeId).timer();
+        assertThat(execute.count()).isEqualTo(2);
+        assertThat(registry.get("querydsl.query.rows").tag("shape", shapeId).summary().totalAmount()).isEqualTo(8);
+        assertThat(QueryMetrics.parameterShape(constants)).isEqualTo("[?1:String]");
+    }
+
+    @Test
+    public void limitShapes() {
+        QueryMetrics metrics = new QueryMetrics(new SimpleMeterRegistry(), Duration.ofSeconds(1), 1);
+
+        String first = metrics.shapeId("select 1");
+        String second = metrics.shapeId("select 2");
+
+        assertThat(first).isEqualTo(metrics.shapeId("select 1"));
+        assertThat(second).isEqualTo("other");
+    }
+}
@@ -0,0 +1,30 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCountInterceptorTest {
+
+    private static final String SELECT_TEAM = "select team0_.id as id1_1_0_ from team team0_ where team0_.id=?";
+
+    @Test
+    public void endScopeWhenAsyncStarted() {
+        NPlusOneDetector detector = new NPlusOneDetector(true, 3, true);
+        StatementCountInterceptor interceptor = new StatementCountInterceptor(detector);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members/async");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        detector.inspect(SELECT_TEAM);
+        assertThat(detector.selectCount()).isEqualTo(1);
+
+        // servlet 스레드가 요청을 놓으면 범위도 닫혀서 다음 요청에 섞이지 않음
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        assertThat(detector.selectCount()).isEqualTo(0);
+        detector.inspect(SELECT_TEAM);
+        assertThat(detector.selectCount()).isEqualTo(0);
+    }
+}
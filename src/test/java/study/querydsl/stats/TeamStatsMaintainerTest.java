@@ -0,0 +1,303 @@
+package study.querydsl.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.TeamStatsQueryRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// TeamStats 는 commit 직전에 반영되므로 테스트 트랜잭션 없이 commit 해서 확인
+@SpringBootTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TeamStatsMaintainerTest {
+
+    @Autowired EntityManager em;
+
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @Autowired TeamStatsReconciler reconciler;
+
+    @Autowired TeamStatsQueryRepository teamStatsQueryRepository;
+
+    @Test
+    public void incrementalMaintenance() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> memberIds = new ArrayList<>();
+
+        Long[] teamIds = tx.execute(status -> {
+            Team teamA = new Team("statsTeamA");
+            Team teamB = new Team("statsTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int age : new int[]{10, 20, 30}) {
+                Member member = new Member("statsMember", age, teamA);
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+            return new Long[]{teamA.getId(), teamB.getId()};
+        });
+        Long teamA = teamIds[0];
+        Long teamB = teamIds[1];
+
+        try {
+            assertStats(teamA, 3, 60, 10, 30);
+            // team 을 만들 때 row 도 같이 만들어짐
+            assertStats(teamB, 0, 0, 0, 0);
+
+            // rollback 이면 반영 안 됨
+            tx.execute(status -> {
+                em.persist(new Member("statsMember", 99, em.find(Team.class, teamA)));
+                status.setRollbackOnly();
+                return null;
+            });
+            assertStats(teamA, 3, 60, 10, 30);
+
+            // team 변경 - 나간 값이 min 이므로 teamA 는 min 을 다시 조회
+            tx.execute(status -> {
+                em.find(Member.class, memberIds.get(0)).changeTeam(em.find(Team.class, teamB));
+                return null;
+            });
+            assertStats(teamA, 2, 50, 20, 30);
+            assertStats(teamB, 1, 10, 10, 10);
+
+            // 나이 변경
+            tx.execute(status -> {
+                em.find(Member.class, memberIds.get(2)).setAge(5);
+                return null;
+            });
+            assertStats(teamA, 2, 25, 5, 20);
+
+            // bulk update
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("statsTeamA");
+            assertThat(memberJpaRepository.bulkUpdateAge(condition, 3)).isEqualTo(2);
+            assertStats(teamA, 2, 31, 8, 23);
+
+            // 삭제
+            tx.execute(status -> {
+                em.remove(em.find(Member.class, memberIds.get(1)));
+                return null;
+            });
+            assertStats(teamA, 1, 8, 8, 8);
+
+            assertThat(reconciler.reconcile()).isEqualTo(0);
+        } finally {
+            tx.execute(status -> {
+                for (Long memberId : memberIds) {
+                    Member member = em.find(Member.class, memberId);
+                    if (member != null) {
+                        em.remove(member);
+                    }
+                }
+                return null;
+            });
+            // member 가 없어져도 row 는 0 으로 남음, team 을 지우면 같이 지워짐
+            assertStats(teamA, 0, 0, 0, 0);
+            assertStats(teamB, 0, 0, 0, 0);
+            tx.execute(status -> {
+                em.remove(em.find(Team.class, teamA));
+                em.remove(em.find(Team.class, teamB));
+                return null;
+            });
+            assertThat(stats(teamA)).isNull();
+            assertThat(stats(teamB)).isNull();
+        }
+    }
+
+    // 이름이 같은 team 도 v1 (member 집계), v2 (요약) 모두 team 별 row
+    @Test
+    public void sameNameTeamsMatchSummary() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] teamIds = tx.execute(status -> {
+            Team first = new Team("statsSameName");
+            Team second = new Team("statsSameName");
+            em.persist(first);
+            em.persist(second);
+            em.persist(new Member("statsSameNameMember", 10, first));
+            em.persist(new Member("statsSameNameMember", 20, first));
+            em.persist(new Member("statsSameNameMember", 30, second));
+            return new Long[]{first.getId(), second.getId()};
+        });
+
+        try {
+            List<TeamStatsDto> v1 = sameName(teamStatsQueryRepository.findTeamStats());
+            List<TeamStatsDto> v2 = sameName(teamStatsQueryRepository.findTeamStatsFromSummary());
+
+            assertThat(v1).extracting("memberCount", "ageSum").containsExactly(
+                    tuple(2L, 30L), tuple(1L, 30L));
+            assertThat(v2).usingFieldByFieldElementComparator().containsExactlyElementsOf(v1);
+        } finally {
+            tx.execute(status -> {
+                em.createQuery("delete from Member m where m.team.id in :teamIds")
+                        .setParameter("teamIds", Arrays.asList(teamIds))
+                        .executeUpdate();
+                em.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                        .setParameter("teamIds", Arrays.asList(teamIds))
+                        .executeUpdate();
+                for (Long teamId : teamIds) {
+                    em.remove(em.find(Team.class, teamId));
+                }
+                return null;
+            });
+        }
+    }
+
+    private static List<TeamStatsDto> sameName(List<TeamStatsDto> stats) {
+        return stats.stream()
+                .filter(dto -> dto.getTeamName().equals("statsSameName"))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void reconcileFixesDrift() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("statsDriftTeam");
+            em.persist(team);
+            em.persist(new Member("statsDriftMember", 40, team));
+            em.persist(new Member("statsDriftMember", 50, team));
+            return team.getId();
+        });
+
+        try {
+            // hibernate 를 거치지 않은 변경 -> drift
+            tx.execute(status -> em.createNativeQuery("update member set age = age + 1 where team_id = ?")
+                    .setParameter(1, teamId)
+                    .executeUpdate());
+            assertStats(teamId, 2, 90, 40, 50);
+
+            assertThat(reconciler.reconcile()).isEqualTo(1);
+            assertStats(teamId, 2, 92, 41, 51);
+            assertThat(reconciler.reconcile()).isEqualTo(0);
+
+            // row 가 없는 team (TeamStats 이전의 team) 은 reconcile 이 만듦
+            tx.execute(status -> em.createQuery("delete from TeamStats s where s.teamId = :teamId")
+                    .setParameter("teamId", teamId)
+                    .executeUpdate());
+            assertThat(reconciler.reconcile()).isEqualTo(1);
+            assertStats(teamId, 2, 92, 41, 51);
+        } finally {
+            tx.execute(status -> {
+                em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+                em.createQuery("delete from TeamStats s where s.teamId = :teamId").setParameter("teamId", teamId).executeUpdate();
+                em.remove(em.find(Team.class, teamId));
+                return null;
+            });
+        }
+    }
+
+    // commit 시점 team 단위 반영 (team 마다 select ... for update) 은 N+1 threshold(10) 를 넘어도 실패하지 않음
+    @Test
+    public void manyTeamsInOneTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> teamIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                Team team = new Team("statsManyTeam" + i);
+                em.persist(team);
+                ids.add(team.getId());
+            }
+            return ids;
+        });
+
+        try {
+            tx.execute(status -> {
+                for (Long teamId : teamIds) {
+                    em.persist(new Member("statsManyMember", 10, em.getReference(Team.class, teamId)));
+                }
+                return null;
+            });
+            for (Long teamId : teamIds) {
+                assertStats(teamId, 1, 10, 10, 10);
+            }
+        } finally {
+            tx.execute(status -> {
+                em.createQuery("delete from Member m where m.username = 'statsManyMember'").executeUpdate();
+                em.createQuery("delete from TeamStats s where s.teamId in :teamIds").setParameter("teamIds", teamIds).executeUpdate();
+                em.createQuery("delete from Team t where t.id in :teamIds").setParameter("teamIds", teamIds).executeUpdate();
+                return null;
+            });
+        }
+    }
+
+    // 같은 team 의 첫 member 를 두 트랜잭션이 동시에 commit - 둘 다 성공하고 둘 다 반영
+    @Test
+    public void concurrentFirstMembers() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("statsConcurrentTeam");
+            em.persist(team);
+            return team.getId();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // 둘 다 member insert 를 flush 한 뒤에 commit 시작
+        CyclicBarrier flushed = new CyclicBarrier(2);
+        try {
+            List<Future<?>> commits = new ArrayList<>();
+            for (int age : new int[]{20, 30}) {
+                commits.add(executor.submit(() -> tx.execute(status -> {
+                    em.persist(new Member("statsConcurrentMember", age, em.find(Team.class, teamId)));
+                    em.flush();
+                    try {
+                        flushed.await(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return null;
+                })));
+            }
+            for (Future<?> commit : commits) {
+                commit.get(10, TimeUnit.SECONDS);
+            }
+
+            assertStats(teamId, 2, 50, 20, 30);
+            assertThat(reconciler.reconcile()).isEqualTo(0);
+        } finally {
+            executor.shutdownNow();
+            tx.execute(status -> {
+                em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+                em.remove(em.find(Team.class, teamId));
+                return null;
+            });
+        }
+    }
+
+    private TeamStats stats(Long teamId) {
+        return new TransactionTemplate(transactionManager).execute(status -> em.find(TeamStats.class, teamId));
+    }
+
+    private void assertStats(Long teamId, long count, long sum, int min, int max) {
+        TeamStats stats = stats(teamId);
+        assertThat(stats).isNotNull();
+        assertThat(stats.getMemberCount()).isEqualTo(count);
+        assertThat(stats.getAgeSum()).isEqualTo(sum);
+        assertThat(stats.getAgeMin()).isEqualTo(min);
+        assertThat(stats.getAgeMax()).isEqualTo(max);
+    }
+}